@@ -0,0 +1,29 @@
+package com.coop.bot.benchmark;
+
+import com.coop.bot.config.ModConfig;
+import com.google.gson.Gson;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+
+/**
+ * Shared setup for the benchmarks. Benchmarks run outside a server, so only the registries are
+ * bootstrapped and nothing talks to Discord (DiscordBotManager is never started).
+ */
+final class BenchmarkSupport {
+    private static boolean bootstrapped;
+
+    private BenchmarkSupport() {}
+
+    // EntityType constants and BuiltInRegistries need this before first use
+    static synchronized void bootstrap() {
+        if (bootstrapped) return;
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        bootstrapped = true;
+    }
+
+    // Defaults plus overrides, without reading or writing config/coop-bot.json
+    static ModConfig config(String overridesJson) {
+        return new Gson().fromJson(overridesJson, ModConfig.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.coop.bot.benchmark;
+
+import com.coop.bot.objects.DeathRecord;
+import net.minecraft.world.entity.EntityTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a DeathRecord the way createDeathRecord does, without a live entity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeathRecordBenchmark {
+    private final UUID entity = UUID.randomUUID();
+    private final UUID killer = UUID.randomUUID();
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.bootstrap();
+    }
+
+    @Benchmark
+    public DeathRecord mobKilledByPlayer() {
+        return new DeathRecord.Builder()
+                .entityUUID(entity)
+                .entityName("Zombie")
+                .entityType(EntityTypes.ZOMBIE)
+                .damageSource("player")
+                .deathMessage("Zombie was slain by Trko__")
+                .deathLocation(120.5, 64, -33.2, "the Overworld")
+                .killerName("Trko__")
+                .killerUUID(killer)
+                .killerType(EntityTypes.PLAYER)
+                .build();
+    }
+
+    @Benchmark
+    public DeathRecord playerDeathNoKiller() {
+        return new DeathRecord.Builder()
+                .entityUUID(killer)
+                .entityName("Trko__")
+                .entityType(EntityTypes.PLAYER)
+                .damageSource("fall")
+                .deathMessage("Trko__ fell from a high place")
+                .deathLocation(120.5, 64, -33.2, "the Overworld")
+                .playerDeath(true)
+                .build();
+    }
+}
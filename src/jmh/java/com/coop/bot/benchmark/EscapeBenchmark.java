@@ -0,0 +1,82 @@
+package com.coop.bot.benchmark;
+
+import com.coop.bot.DiscordSanitizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Outgoing message escaping: the old regex + replace escapeMarkdown against DiscordSanitizer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscapeBenchmark {
+
+    @Param({"plain", "markdown", "tags", "long"})
+    public String kind;
+
+    private String message;
+
+    @Setup
+    public void setup() {
+        message = switch (kind) {
+            case "plain" -> "💀 Steve was slain by Zombie at 120, 64, -33 in the Overworld";
+            case "markdown" -> "💀 Trko__ was blown up by Creeper ~ at x|y > z";
+            case "tags" -> "<:brasovpog:1411341162111045632> **Farming Complete** Trko__ killed 54 Zombies in <t:1700000000:R>";
+            default -> "Zombie_Villager died ".repeat(100);
+        };
+    }
+
+    @Benchmark
+    public String legacyEscapeMarkdown() {
+        return LegacyEscape.escapeMarkdown(message);
+    }
+
+    @Benchmark
+    public String sanitizer() {
+        return DiscordSanitizer.sanitize(message);
+    }
+
+    // DiscordBotManager.escapeMarkdown as it was before DiscordSanitizer, kept as the baseline
+    static final class LegacyEscape {
+        static String escapeMarkdown(String text) {
+            if (text == null) return "";
+            StringBuilder result = new StringBuilder();
+            Pattern pattern = Pattern.compile("(<[tT]:\\d+:[A-Za-z]>|<a?:\\w+:\\d+>)");
+            Matcher matcher = pattern.matcher(text);
+
+            int lastIndex = 0;
+            while (matcher.find()) {
+                result.append(escapePlainMarkdown(text.substring(lastIndex, matcher.start())));
+                result.append(matcher.group());
+                lastIndex = matcher.end();
+            }
+            result.append(escapePlainMarkdown(text.substring(lastIndex)));
+            return result.toString();
+        }
+
+        private static String escapePlainMarkdown(String text) {
+            return text
+                    .replace("_", "\\_")
+                    .replace("~", "\\~")
+                    .replace(">", "\\>")
+                    .replace("|", "\\|");
+        }
+    }
+}
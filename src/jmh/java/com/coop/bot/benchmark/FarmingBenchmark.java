@@ -0,0 +1,109 @@
+package com.coop.bot.benchmark;
+
+import com.coop.bot.DeathHistory;
+import com.coop.bot.DeathTracking;
+import com.coop.bot.DiscordBotManager;
+import com.coop.bot.config.ModConfig;
+import com.coop.bot.objects.DeathRecord;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.EntityTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * recordDeath (history, stats and farming detection) and isFarming with a full history.
+ * The history is filled with kills by 50 players across a handful of mob types, spread over the last hour.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2G")
+public class FarmingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int historySize;
+
+    private static final int KILLERS = 50;
+    private static final int RECORDS = 1024;
+
+    private DeathTracking deathTracking;
+    private DeathRecord[] records;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.bootstrap();
+        // Sized so the ring holds exactly historySize deaths, journal off so nothing touches the disk
+        long memoryKb = (long) historySize * DeathHistory.BYTES_PER_DEATH / 1024 + 1;
+        ModConfig config = BenchmarkSupport.config("{\"deathHistoryMemoryKb\": " + memoryKb + ", \"deathJournalEnabled\": false}");
+        deathTracking = new DeathTracking(new DiscordBotManager(config), config);
+
+        List<EntityType<?>> types = List.of(EntityTypes.ZOMBIE, EntityTypes.SKELETON, EntityTypes.CREEPER,
+                EntityTypes.SPIDER, EntityTypes.ENDERMAN, EntityTypes.BLAZE);
+        UUID[] killers = new UUID[KILLERS];
+        for (int i = 0; i < KILLERS; i++) killers[i] = UUID.randomUUID();
+
+        Random random = new Random(42);
+        long now = Instant.now().getEpochSecond();
+        for (int i = 0; i < historySize; i++) {
+            int killer = random.nextInt(KILLERS);
+            deathTracking.recordDeath(death(killers[killer], "Player" + killer,
+                    types.get(random.nextInt(types.size())), now - 3600 + (3600L * i / historySize)));
+        }
+
+        // What the measured calls use, timestamp 0 = now
+        records = new DeathRecord[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            int killer = random.nextInt(KILLERS);
+            records[i] = death(killers[killer], "Player" + killer, types.get(random.nextInt(types.size())), 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        deathTracking.shutdown();
+    }
+
+    private static DeathRecord death(UUID killer, String killerName, EntityType<?> type, long timestamp) {
+        return new DeathRecord.Builder()
+                .entityUUID(UUID.randomUUID())
+                .entityName("Zombie")
+                .entityType(type)
+                .killerUUID(killer)
+                .killerName(killerName)
+                .killerType(EntityTypes.PLAYER)
+                .damageSource("player")
+                .deathLocation(120, 64, -33, "the Overworld")
+                .timestamp(timestamp)
+                .build();
+    }
+
+    @Benchmark
+    public boolean recordDeath() {
+        return deathTracking.recordDeath(records[next++ & (RECORDS - 1)]);
+    }
+
+    @Benchmark
+    public boolean isFarming() {
+        return deathTracking.isFarming(records[next++ & (RECORDS - 1)]);
+    }
+}
@@ -0,0 +1,165 @@
+package com.coop.bot.benchmark;
+
+import com.coop.bot.FarmingDetector;
+import com.coop.bot.objects.DeathRecord;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.EntityTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a recorded-style death trace through FarmingDetector and through the String keyed session map
+ * it replaced. The trace mixes single mob grinders, mixed spawn grinders and players killing the odd mob
+ * while exploring, over two hours of server time. Both return how many deaths they suppressed, the two
+ * only differ on mixed farms, which the old map never detected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FarmingReplayBenchmark {
+
+    @Param({"10", "100"})
+    public int players;
+
+    private static final long START = 1_700_000_000L;
+    private static final long DURATION = 2 * 60 * 60;
+
+    private DeathRecord[] trace;
+
+    @Setup
+    public void setup() {
+        BenchmarkSupport.bootstrap();
+        List<EntityType<?>> types = List.of(EntityTypes.ZOMBIE, EntityTypes.SKELETON, EntityTypes.CREEPER,
+                EntityTypes.SPIDER, EntityTypes.ENDERMAN, EntityTypes.BLAZE);
+        Random random = new Random(42);
+        List<DeathRecord> deaths = new ArrayList<>();
+
+        for (int p = 0; p < players; p++) {
+            UUID killer = UUID.randomUUID();
+            String name = "Player" + p;
+            long time = START + random.nextInt(600);
+            while (time < START + DURATION) {
+                switch (p % 4) {
+                    // Single type grinder, a kill every 1-3s for 5-15 minutes, then a break
+                    case 0 -> {
+                        EntityType<?> type = types.get(random.nextInt(types.size()));
+                        long end = time + 300 + random.nextInt(600);
+                        for (; time < end; time += 1 + random.nextInt(3)) deaths.add(death(killer, name, type, time));
+                        time += 120 + random.nextInt(600);
+                    }
+                    // Mixed spawn grinder
+                    case 1 -> {
+                        long end = time + 300 + random.nextInt(600);
+                        for (; time < end; time += 1 + random.nextInt(2)) {
+                            deaths.add(death(killer, name, types.get(random.nextInt(4)), time));
+                        }
+                        time += 120 + random.nextInt(600);
+                    }
+                    // Exploring, the odd kill
+                    default -> {
+                        deaths.add(death(killer, name, types.get(random.nextInt(types.size())), time));
+                        time += 20 + random.nextInt(120);
+                    }
+                }
+            }
+        }
+
+        deaths.sort(Comparator.comparingLong(DeathRecord::getTimestamp));
+        trace = deaths.toArray(new DeathRecord[0]);
+    }
+
+    private static DeathRecord death(UUID killer, String killerName, EntityType<?> type, long timestamp) {
+        return new DeathRecord.Builder()
+                .entityUUID(UUID.randomUUID())
+                .entityName(EntityType.getKey(type).getPath())
+                .entityType(type)
+                .killerUUID(killer)
+                .killerName(killerName)
+                .killerType(EntityTypes.PLAYER)
+                .damageSource("player")
+                .deathLocation(120, 64, -33, "the Overworld")
+                .timestamp(timestamp)
+                .build();
+    }
+
+    @Benchmark
+    public int detector() {
+        FarmingDetector detector = new FarmingDetector(START, session -> {}, session -> {});
+        int suppressed = 0;
+        for (DeathRecord death : trace) {
+            // The death worker ticks about once a second
+            detector.advance(death.getTimestamp());
+            if (detector.recordKill(death)) suppressed++;
+        }
+        detector.advance(START + DURATION + FarmingDetector.INACTIVITY_SECONDS + 1);
+        return suppressed;
+    }
+
+    @Benchmark
+    public int legacySessionMap() {
+        LegacyFarming farming = new LegacyFarming();
+        int suppressed = 0;
+        long lastSweep = START;
+        for (DeathRecord death : trace) {
+            // The old monitor scanned every session every 5 seconds
+            while (death.getTimestamp() - lastSweep >= 5) {
+                lastSweep += 5;
+                farming.sweep(lastSweep);
+            }
+            if (farming.record(death)) suppressed++;
+        }
+        farming.sweep(START + DURATION + FarmingDetector.INACTIVITY_SECONDS + 1);
+        return suppressed;
+    }
+
+    // DeathTracking.checkAndHandleFarming as it was before FarmingDetector, kept as the baseline
+    static final class LegacyFarming {
+        private final Map<String, long[]> sessions = new ConcurrentHashMap<>(); // lastKill, kills, notified
+        private final Set<String> notified = ConcurrentHashMap.newKeySet();
+
+        boolean record(DeathRecord death) {
+            String killerId = death.getKillerUUID() != null ? death.getKillerUUID().toString() : death.getKillerName();
+            String key = killerId + ":" + death.getEntityName();
+            long[] session = sessions.computeIfAbsent(key, k -> new long[]{death.getTimestamp(), 0, 0});
+            session[0] = death.getTimestamp();
+            session[1]++;
+            if (session[1] >= 10 && session[2] == 0) {
+                session[2] = 1;
+                notified.add(key);
+            }
+            return notified.contains(key);
+        }
+
+        void sweep(long now) {
+            sessions.entrySet().removeIf(entry -> {
+                if (now - entry.getValue()[0] > 60) {
+                    notified.remove(entry.getKey());
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.coop.bot.benchmark;
+
+import com.coop.bot.RegistrationStore;
+import com.coop.bot.objects.RegisteredUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registration lookups by Minecraft name (server thread) and Discord id (slash commands, buttons).
+ * Runs in the jmh task's working directory, the registrations file there is recreated each fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int users;
+
+    private static final int LOOKUPS = 1024;
+
+    private RegistrationStore store;
+    private String[] names;
+    private String[] discordIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Files.deleteIfExists(Path.of("config", "coop-bot-registrations.json"));
+        store = RegistrationStore.getInstance();
+        for (int i = 0; i < users; i++) {
+            store.register("Player" + i, String.valueOf(100000000000000000L + i), "Discord" + i, null);
+        }
+
+        // Mixed case names like the ones coming from the server, plus some misses
+        names = new String[LOOKUPS];
+        discordIds = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            int user = (i * 7919) % (users + users / 10);
+            names[i] = "PLAYER" + user;
+            discordIds[i] = String.valueOf(100000000000000000L + user);
+        }
+    }
+
+    @Benchmark
+    public RegisteredUser getByMinecraft() {
+        return store.getByMinecraft(names[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public RegisteredUser getByDiscordId() {
+        return store.getByDiscordId(discordIds[next++ & (LOOKUPS - 1)]);
+    }
+}
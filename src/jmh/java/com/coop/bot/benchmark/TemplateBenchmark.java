@@ -0,0 +1,82 @@
+package com.coop.bot.benchmark;
+
+import com.coop.bot.config.ModConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ModConfig formats: chained String.replace (how they used to be expanded) against compiled templates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+    private ModConfig config;
+    private final String player = "Trko__";
+    private final String chat = "anyone got spare iron? heading to the nether in 5";
+    private final String deathMessage = "Trko__ was slain by Zombie";
+    private final String coords = " at `120, 64, -33` in the Overworld";
+
+    @Setup
+    public void setup() {
+        config = new ModConfig();
+    }
+
+    @Benchmark
+    public String joinReplace() {
+        return config.getJoinMessageFormat().replace("{player}", player);
+    }
+
+    @Benchmark
+    public String joinTemplate() {
+        return config.getJoinTemplate().render(player);
+    }
+
+    @Benchmark
+    public String deathReplace() {
+        return config.getDeathMessageFormat()
+                .replace("{message}", deathMessage)
+                .replace("{coords}", coords);
+    }
+
+    @Benchmark
+    public String deathTemplate() {
+        return config.getDeathTemplate().render(deathMessage, coords);
+    }
+
+    @Benchmark
+    public String chatReplace() {
+        return config.getChatMessageFormat()
+                .replace("{player}", player)
+                .replace("{message}", chat);
+    }
+
+    @Benchmark
+    public String chatTemplate() {
+        return config.getChatTemplate().render(player, chat);
+    }
+
+    @Benchmark
+    public String discordToMinecraftFormat() {
+        // The old hard-coded path in sendToMinecraft
+        return String.format("§9[Discord] §7%s: §f%s", player, chat);
+    }
+
+    @Benchmark
+    public String discordToMinecraftTemplate() {
+        return config.getDiscordToMinecraftTemplate().render(player, chat);
+    }
+}
@@ -4,7 +4,11 @@ import net.fabricmc.api.DedicatedServerModInitializer;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.coop.bot.config.JsonFileSaver;
 import com.coop.bot.config.ModConfig;
+import com.coop.bot.metrics.MetricsServer;
+
+import java.io.IOException;
 
 public class CoopBot implements DedicatedServerModInitializer {
     public static final String MOD_ID = "coop-bot";
@@ -14,6 +18,7 @@ public class CoopBot implements DedicatedServerModInitializer {
     private static DiscordBotManager discordBotManager;
     private DiscordWebhook shutdownWebhook;
     private DeathTracking deathTracking;
+    private MetricsServer metricsServer;
 
     @Override
     public void onInitializeServer() {
@@ -49,7 +54,21 @@ public class CoopBot implements DedicatedServerModInitializer {
         });
 
 
+        // Registrations / config are saved in the background, write out anything still pending
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> JsonFileSaver.flushAll());
+
+        if (config.getMetricsPort() > 0) {
+            try {
+                metricsServer = new MetricsServer(config.getMetricsPort());
+                metricsServer.start();
+                ServerLifecycleEvents.SERVER_STOPPED.register(server -> metricsServer.stop());
+            } catch (IOException e) {
+                LOGGER.error("Failed to start metrics endpoint on port " + config.getMetricsPort() + ": " + e.getMessage());
+            }
+        }
+
         deathTracking = new DeathTracking(discordBotManager, config);
+        discordBotManager.setDeathStatistics(deathTracking.getDeathStatistics());
         EventListener.intialize(discordBotManager, config, deathTracking);
 
         LOGGER.info("CoopBot mod initialized successfully \t( 0 _ 0 )");
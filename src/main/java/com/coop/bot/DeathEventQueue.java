@@ -0,0 +1,88 @@
+package com.coop.bot;
+
+import com.coop.bot.objects.DeathRecord;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer ring of captured deaths.
+ * Producers claim a slot with a CAS on the tail, the single consumer owns the head.
+ * <p>
+ * Overflow policy: mob deaths are only accepted while the queue is under 3/4 full, the rest of
+ * the ring is kept for player deaths. Anything that doesn't fit is dropped and counted.
+ */
+public class DeathEventQueue {
+    private final AtomicReferenceArray<DeathRecord> buffer;
+    private final int capacity;
+    private final int mask;
+    private final int mobLimit;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final LongAdder droppedMobDeaths = new LongAdder();
+    private final LongAdder droppedPlayerDeaths = new LongAdder();
+
+    public DeathEventQueue(int requestedCapacity) {
+        // Round up to a power of two so the slot is a mask rather than a modulo
+        this.capacity = Integer.highestOneBit(Math.max(16, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.mobLimit = capacity - capacity / 4;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Called from any thread. Returns false if the death was dropped.
+     */
+    public boolean offer(DeathRecord death) {
+        int limit = death.isPlayerDeath() ? capacity : mobLimit;
+
+        long t;
+        do {
+            t = tail.get();
+            if (t - head.get() >= limit) {
+                if (death.isPlayerDeath()) {
+                    droppedPlayerDeaths.increment();
+                } else {
+                    droppedMobDeaths.increment();
+                }
+                return false;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+
+        buffer.lazySet((int) (t & mask), death);
+        return true;
+    }
+
+    /**
+     * Consumer thread only. Returns null when empty, or when the next producer hasn't published yet.
+     */
+    public DeathRecord poll() {
+        long h = head.get();
+        int slot = (int) (h & mask);
+        DeathRecord death = buffer.get(slot);
+        if (death == null) return null;
+
+        buffer.lazySet(slot, null);
+        head.lazySet(h + 1);
+        return death;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getDroppedMobDeaths() {
+        return droppedMobDeaths.sum();
+    }
+
+    public long getDroppedPlayerDeaths() {
+        return droppedPlayerDeaths.sum();
+    }
+}
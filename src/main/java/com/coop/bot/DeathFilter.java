@@ -0,0 +1,146 @@
+package com.coop.bot;
+
+import com.coop.bot.config.ModConfig;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.EntityTypes;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.TamableAnimal;
+import net.minecraft.world.entity.animal.equine.AbstractHorse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides on the server thread, before anything is allocated, whether a death is ignored, only tracked
+ * (history, stats, farming detection) or also posted to Discord.
+ * <p>
+ * The config is compiled once into two bitsets indexed by entity type registry id. Players, bosses and
+ * the per-mob list are folded into those bits, so most deaths cost one registry lookup and two bit tests.
+ * Named mobs and tamed pets are per entity, so they are only checked when their rule would change the
+ * outcome for that type. Types registered after the filter was compiled (other mods) use the default.
+ */
+public final class DeathFilter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("CoopBot-DeathFilter");
+
+    public static final int IGNORE = 0;
+    public static final int TRACK = 1;
+    public static final int POST = 2;
+
+    private static final Set<EntityType<?>> BOSSES = Set.of(
+            EntityTypes.ENDER_DRAGON, EntityTypes.WITHER, EntityTypes.ELDER_GUARDIAN, EntityTypes.WARDEN);
+
+    private final long[] tracked;
+    private final long[] posted;
+    // Types where a name or an owner changes the outcome
+    private final long[] checkNamed;
+    private final long[] checkTamed;
+    private final int defaultAction;
+    private final int namedAction;
+    private final int tamedAction;
+
+    private DeathFilter(int typeCount, int defaultAction, int namedAction, int tamedAction) {
+        int words = (typeCount + 63) >>> 6;
+        this.tracked = new long[words];
+        this.posted = new long[words];
+        this.checkNamed = new long[words];
+        this.checkTamed = new long[words];
+        this.defaultAction = defaultAction;
+        this.namedAction = namedAction;
+        this.tamedAction = tamedAction;
+    }
+
+    public static DeathFilter compile(ModConfig config) {
+        int defaultAction = action("deathFilterDefault", config.getDeathFilterDefault(), POST);
+        int playerAction = action("deathFilterPlayers", config.getDeathFilterPlayers(), POST);
+        int bossAction = action("deathFilterBosses", config.getDeathFilterBosses(), POST);
+        int namedAction = action("deathFilterNamedMobs", config.getDeathFilterNamedMobs(), POST);
+        int tamedAction = action("deathFilterTamedPets", config.getDeathFilterTamedPets(), POST);
+
+        // Normalised entity id -> action, ids without a namespace are vanilla
+        Map<String, Integer> mobActions = new HashMap<>();
+        config.getDeathFilterMobs().forEach((id, action) -> {
+            String key = id.contains(":") ? id.toLowerCase(Locale.ROOT) : "minecraft:" + id.toLowerCase(Locale.ROOT);
+            mobActions.put(key, action("deathFilterMobs." + id, action, defaultAction));
+        });
+
+        DeathFilter filter = new DeathFilter(BuiltInRegistries.ENTITY_TYPE.size(), defaultAction, namedAction, tamedAction);
+        int matched = 0;
+        for (EntityType<?> type : BuiltInRegistries.ENTITY_TYPE) {
+            int action;
+            Integer listed = mobActions.get(String.valueOf(EntityType.getKey(type)));
+            if (listed != null) {
+                action = listed;
+                matched++;
+            } else if (type == EntityTypes.PLAYER) {
+                action = playerAction;
+            } else if (BOSSES.contains(type)) {
+                action = bossAction;
+            } else {
+                action = defaultAction;
+            }
+            filter.set(BuiltInRegistries.ENTITY_TYPE.getId(type), action);
+        }
+        if (matched < mobActions.size()) {
+            LOGGER.warn("{} deathFilterMobs entries don't match any entity type", mobActions.size() - matched);
+        }
+
+        LOGGER.info("Death filter compiled for {} entity types", BuiltInRegistries.ENTITY_TYPE.size());
+        return filter;
+    }
+
+    private void set(int id, int action) {
+        int word = id >>> 6;
+        long bit = 1L << id;
+        if (action >= TRACK) tracked[word] |= bit;
+        if (action == POST) posted[word] |= bit;
+        if (action != namedAction) checkNamed[word] |= bit;
+        if (action != tamedAction) checkTamed[word] |= bit;
+    }
+
+    /**
+     * Server thread, first thing in the death callback. IGNORE, TRACK or POST.
+     */
+    public int classify(LivingEntity entity) {
+        int id = BuiltInRegistries.ENTITY_TYPE.getId(entity.getType());
+        if (id < 0 || (id >>> 6) >= tracked.length) {
+            return defaultAction;
+        }
+
+        int word = id >>> 6;
+        long bit = 1L << id;
+        if ((checkNamed[word] & bit) != 0 && entity.hasCustomName()) {
+            return namedAction;
+        }
+        if ((checkTamed[word] & bit) != 0 && isTamed(entity)) {
+            return entity.hasCustomName() ? namedAction : tamedAction;
+        }
+        if ((tracked[word] & bit) == 0) return IGNORE;
+        return (posted[word] & bit) != 0 ? POST : TRACK;
+    }
+
+    private static boolean isTamed(LivingEntity entity) {
+        if (entity instanceof TamableAnimal animal) return animal.isTame();
+        if (entity instanceof AbstractHorse horse) return horse.isTamed();
+        return false;
+    }
+
+    private static int action(String setting, String value, int fallback) {
+        if (value == null) return fallback;
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "post":
+                return POST;
+            case "track":
+                return TRACK;
+            case "ignore":
+                return IGNORE;
+            default:
+                LOGGER.warn("Unknown action '{}' for {}, expected post, track or ignore", value, setting);
+                return fallback;
+        }
+    }
+}
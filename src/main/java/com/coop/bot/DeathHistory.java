@@ -0,0 +1,386 @@
+package com.coop.bot;
+
+import com.coop.bot.objects.DeathRecord;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fixed-capacity ring of deaths, stored as primitive columns rather than DeathRecord objects.
+ * Once full, the oldest death is overwritten. Strings (names, dimension, damage source) are
+ * interned into a reference counted pool and stored as int ids; a string is dropped from the pool
+ * when the last death using it is overwritten, so the pool never outgrows the ring. Entity types
+ * are stored as registry ids.
+ * Death messages are not kept, records read back from here have a null death message.
+ * <p>
+ * Two secondary indexes are kept in step with the ring: entity UUID -> positions, and
+ * (killer UUID, victim type) -> per-second kill counts. Killer UUIDs get pooled ids like strings.
+ * Both indexes drop an entry when the death it came from is overwritten, so they never outgrow the
+ * ring. The entity index costs about as much again as the columns (almost every mob dies once), so
+ * the ring is sized by BYTES_PER_DEATH, which includes it.
+ */
+public class DeathHistory {
+    // 8 (timestamp) + 3 * 8 (coords) + 2 * 16 (uuids) + 7 * 4 (type, name and killer ids)
+    public static final int BYTES_PER_RECORD = 92;
+    // Entity index: ~64 bytes per map entry and list, 8 per indexed sequence number
+    public static final int INDEX_BYTES_PER_RECORD = 72;
+    public static final int BYTES_PER_DEATH = BYTES_PER_RECORD + INDEX_BYTES_PER_RECORD;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int NO_ID = -1;
+    // Seconds of per-second kill counts kept for each (killer, victim) pair
+    public static final int KILL_WINDOW_SECONDS = 64;
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final long[] entityMsb;
+    private final long[] entityLsb;
+    private final long[] killerMsb;
+    private final long[] killerLsb;
+    private final int[] entityTypeIds;
+    private final int[] killerTypeIds;
+    private final int[] entityNameIds;
+    private final int[] killerNameIds;
+    private final int[] killerIds;
+    private final int[] dimensionIds;
+    private final int[] damageSourceIds;
+
+    // Interned names, dimensions and damage sources
+    private final Pool<String> strings = new Pool<>();
+    private long pooledChars;
+    // Killer UUIDs, so the kill index is keyed by an int
+    private final Pool<UUID> killers = new Pool<>();
+
+    // Total deaths ever added, the next write goes to slot (written % capacity)
+    private long written;
+
+    // (uuid msb ^ lsb) -> sequence numbers of that entity's deaths, oldest first. Hash collisions are
+    // filtered out on read by checking the uuid columns
+    private final TLongObjectHashMap<TLongArrayList> entityIndex = new TLongObjectHashMap<>();
+    private long indexedDeaths;
+    // killKey(killer id, victim type id) -> time-bucketed counts
+    private final TLongObjectHashMap<KillCounter> killIndex = new TLongObjectHashMap<>();
+
+    public DeathHistory(long memoryBudgetBytes) {
+        this.capacity = (int) Math.max(MIN_CAPACITY, Math.min(Integer.MAX_VALUE - 8, memoryBudgetBytes / BYTES_PER_DEATH));
+        this.timestamps = new long[capacity];
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.zs = new double[capacity];
+        this.entityMsb = new long[capacity];
+        this.entityLsb = new long[capacity];
+        this.killerMsb = new long[capacity];
+        this.killerLsb = new long[capacity];
+        this.entityTypeIds = new int[capacity];
+        this.killerTypeIds = new int[capacity];
+        this.entityNameIds = new int[capacity];
+        this.killerNameIds = new int[capacity];
+        this.killerIds = new int[capacity];
+        this.dimensionIds = new int[capacity];
+        this.damageSourceIds = new int[capacity];
+    }
+
+    public synchronized void add(DeathRecord death) {
+        int slot = (int) (written % capacity);
+        if (written >= capacity) {
+            unindex(written - capacity, slot);
+            release(entityNameIds[slot]);
+            release(killerNameIds[slot]);
+            release(dimensionIds[slot]);
+            release(damageSourceIds[slot]);
+            killers.release(killerIds[slot]);
+        }
+
+        timestamps[slot] = death.getTimestamp();
+        xs[slot] = death.getDeathX();
+        ys[slot] = death.getDeathY();
+        zs[slot] = death.getDeathZ();
+
+        UUID entityUUID = death.getEntityUUID();
+        entityMsb[slot] = entityUUID != null ? entityUUID.getMostSignificantBits() : 0L;
+        entityLsb[slot] = entityUUID != null ? entityUUID.getLeastSignificantBits() : 0L;
+        UUID killerUUID = death.getKillerUUID();
+        killerMsb[slot] = killerUUID != null ? killerUUID.getMostSignificantBits() : 0L;
+        killerLsb[slot] = killerUUID != null ? killerUUID.getLeastSignificantBits() : 0L;
+        killerIds[slot] = killers.intern(killerUUID);
+
+        entityTypeIds[slot] = typeId(death.getEntityType());
+        killerTypeIds[slot] = typeId(death.getKillerType());
+        entityNameIds[slot] = intern(death.getEntityName());
+        killerNameIds[slot] = intern(death.getKillerName());
+        dimensionIds[slot] = intern(death.getDimension());
+        damageSourceIds[slot] = intern(death.getDamageSource());
+
+        index(written, slot);
+        written++;
+    }
+
+    /**
+     * Most recent deaths, oldest first, at most count of them.
+     */
+    public synchronized List<DeathRecord> getRecentDeaths(int count) {
+        int n = (int) Math.min(Math.max(0, count), size());
+        List<DeathRecord> result = new ArrayList<>(n);
+        for (long seq = written - n; seq < written; seq++) {
+            result.add(read((int) (seq % capacity)));
+        }
+        return result;
+    }
+
+    public synchronized List<DeathRecord> getDeathsOfEntity(UUID id) {
+        List<DeathRecord> result = new ArrayList<>();
+        if (id == null) return result;
+
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        TLongArrayList seqs = entityIndex.get(msb ^ lsb);
+        if (seqs == null) return result;
+
+        for (int i = 0; i < seqs.size(); i++) {
+            int slot = (int) (seqs.get(i) % capacity);
+            if (entityMsb[slot] == msb && entityLsb[slot] == lsb) {
+                result.add(read(slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * How many victimType deaths killer caused between since and now (inclusive, epoch seconds).
+     * A null killer counts deaths with no killer. Only the last KILL_WINDOW_SECONDS seconds are
+     * counted, so this is constant time.
+     */
+    public synchronized int countKills(UUID killer, EntityType<?> victimType, long since, long now) {
+        int killerId = killers.lookup(killer);
+        // A killer with no deaths in the ring can't match anything stored
+        if (killer != null && killerId == NO_ID) return 0;
+
+        KillCounter counter = killIndex.get(killKey(killerId, typeId(victimType)));
+        return counter == null ? 0 : counter.countBetween(since, now);
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(written, capacity);
+    }
+
+    public synchronized long totalRecorded() {
+        return written;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Approximate heap used by the columns, the string pool and the indexes.
+     */
+    public synchronized long bytesInUse() {
+        // Columns are allocated up front, strings are ~40 bytes of overhead plus 1 byte per char (compact strings)
+        // and each pool entry costs roughly another 24 bytes across the list and map
+        long columns = (long) capacity * BYTES_PER_RECORD + (strings.size() + killers.size()) * 64L + pooledChars;
+        // ~64 bytes per map entry and list, 8 per indexed sequence number
+        long entities = entityIndex.size() * 64L + indexedDeaths * 8L;
+        long kills = killIndex.size() * (KillCounter.BYTES + 32L);
+        return columns + entities + kills;
+    }
+
+    private void index(long seq, int slot) {
+        long entityKey = entityMsb[slot] ^ entityLsb[slot];
+        TLongArrayList seqs = entityIndex.get(entityKey);
+        if (seqs == null) {
+            seqs = new TLongArrayList(2);
+            entityIndex.put(entityKey, seqs);
+        }
+        seqs.add(seq);
+        indexedDeaths++;
+
+        long killKey = killKey(killerIds[slot], entityTypeIds[slot]);
+        KillCounter counter = killIndex.get(killKey);
+        if (counter == null) {
+            counter = new KillCounter();
+            killIndex.put(killKey, counter);
+        }
+        counter.add(timestamps[slot]);
+    }
+
+    // Called before a slot is overwritten, drops the old death from both indexes
+    private void unindex(long seq, int slot) {
+        long entityKey = entityMsb[slot] ^ entityLsb[slot];
+        TLongArrayList seqs = entityIndex.get(entityKey);
+        if (seqs != null && seqs.remove(seq)) {
+            indexedDeaths--;
+            if (seqs.isEmpty()) entityIndex.remove(entityKey);
+        }
+
+        long killKey = killKey(killerIds[slot], entityTypeIds[slot]);
+        KillCounter counter = killIndex.get(killKey);
+        if (counter != null && counter.remove(timestamps[slot])) {
+            killIndex.remove(killKey);
+        }
+    }
+
+    private static long killKey(int killerId, int victimTypeId) {
+        return ((long) killerId << 32) | (victimTypeId & 0xFFFFFFFFL);
+    }
+
+    private DeathRecord read(int slot) {
+        DeathRecord.Builder builder = new DeathRecord.Builder()
+                .timestamp(timestamps[slot])
+                .entityUUID(new UUID(entityMsb[slot], entityLsb[slot]))
+                .entityName(string(entityNameIds[slot]))
+                .entityType(type(entityTypeIds[slot]))
+                .damageSource(string(damageSourceIds[slot]))
+                .deathLocation(xs[slot], ys[slot], zs[slot], string(dimensionIds[slot]));
+
+        if (killerMsb[slot] != 0L || killerLsb[slot] != 0L) {
+            builder.killerUUID(new UUID(killerMsb[slot], killerLsb[slot]));
+        }
+        if (killerNameIds[slot] != NO_ID) {
+            builder.killerName(string(killerNameIds[slot]));
+        }
+        if (killerTypeIds[slot] != NO_ID) {
+            builder.killerType(type(killerTypeIds[slot]));
+        }
+        return builder.build();
+    }
+
+    private int intern(String value) {
+        int id = strings.intern(value);
+        if (id != NO_ID && strings.refs(id) == 1) pooledChars += value.length();
+        return id;
+    }
+
+    // Called for each string id of a slot that is about to be overwritten
+    private void release(int id) {
+        String evicted = strings.release(id);
+        if (evicted != null) pooledChars -= evicted.length();
+    }
+
+    private String string(int id) {
+        return strings.get(id);
+    }
+
+    /**
+     * Values shared by many deaths, stored once and referred to by int id. Each id counts the columns
+     * in the ring that hold it, a value is dropped when the last one is overwritten and its id reused.
+     */
+    private static final class Pool<T> {
+        private final List<T> values = new ArrayList<>();
+        private final TObjectIntHashMap<T> ids = new TObjectIntHashMap<>(256, 0.5f, NO_ID);
+        private final TIntArrayList refs = new TIntArrayList();
+        private final TIntArrayList freeIds = new TIntArrayList();
+
+        int intern(T value) {
+            if (value == null) return NO_ID;
+
+            int id = ids.get(value);
+            if (id != NO_ID) {
+                refs.set(id, refs.get(id) + 1);
+                return id;
+            }
+
+            if (!freeIds.isEmpty()) {
+                id = freeIds.removeAt(freeIds.size() - 1);
+                values.set(id, value);
+                refs.set(id, 1);
+            } else {
+                id = values.size();
+                values.add(value);
+                refs.add(1);
+            }
+            ids.put(value, id);
+            return id;
+        }
+
+        // Returns the value if this was its last reference and it was dropped
+        T release(int id) {
+            if (id == NO_ID) return null;
+
+            int remaining = refs.get(id) - 1;
+            refs.set(id, remaining);
+            if (remaining > 0) return null;
+
+            T value = values.set(id, null);
+            ids.remove(value);
+            freeIds.add(id);
+            return value;
+        }
+
+        int lookup(T value) {
+            return value == null ? NO_ID : ids.get(value);
+        }
+
+        T get(int id) {
+            return id == NO_ID ? null : values.get(id);
+        }
+
+        int refs(int id) {
+            return refs.get(id);
+        }
+
+        int size() {
+            return ids.size();
+        }
+    }
+
+    /**
+     * Ring of per-second counts for one (killer, victim) pair. A bucket is reset when a newer second
+     * lands on it, so only the last KILL_WINDOW_SECONDS seconds are ever counted.
+     */
+    private static final class KillCounter {
+        static final int BYTES = KILL_WINDOW_SECONDS * 12 + 48;
+
+        private final long[] seconds = new long[KILL_WINDOW_SECONDS];
+        private final int[] counts = new int[KILL_WINDOW_SECONDS];
+        // Deaths still in the ring that were counted here, the counter is dropped when this hits 0
+        private int live;
+
+        void add(long second) {
+            int i = (int) Math.floorMod(second, (long) KILL_WINDOW_SECONDS);
+            if (seconds[i] != second) {
+                seconds[i] = second;
+                counts[i] = 0;
+            }
+            counts[i]++;
+            live++;
+        }
+
+        // Returns true once no deaths in the ring refer to this counter
+        boolean remove(long second) {
+            int i = (int) Math.floorMod(second, (long) KILL_WINDOW_SECONDS);
+            if (seconds[i] == second && counts[i] > 0) {
+                counts[i]--;
+            }
+            return --live <= 0;
+        }
+
+        int countBetween(long since, long now) {
+            long from = Math.max(since, now - KILL_WINDOW_SECONDS + 1);
+            int total = 0;
+            for (long second = from; second <= now; second++) {
+                int i = (int) Math.floorMod(second, (long) KILL_WINDOW_SECONDS);
+                if (seconds[i] == second) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+
+    private static int typeId(EntityType<?> type) {
+        return type == null ? NO_ID : BuiltInRegistries.ENTITY_TYPE.getId(type);
+    }
+
+    private static EntityType<?> type(int id) {
+        return id == NO_ID ? null : BuiltInRegistries.ENTITY_TYPE.byId(id);
+    }
+}
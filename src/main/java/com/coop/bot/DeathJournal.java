@@ -0,0 +1,537 @@
+package com.coop.bot;
+
+import com.coop.bot.objects.DeathRecord;
+import net.minecraft.core.registries.BuiltInRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Append-only binary journal of deaths on local disk. DeathTracking reads the last day back at startup
+ * to seed the 1h / 24h stats, so they survive restarts.
+ * <p>
+ * Deaths are written by a background thread in batches, with an fsync at most once a second.
+ * Files roll into fixed-size segments, and a restart carries on appending to the last one, so frequent
+ * restarts don't leave a trail of small files. Once there are more than maxSegments the oldest are
+ * deleted. Each segment has a small sparse time index (.idx) with one (timestamp, record) entry every
+ * INDEX_INTERVAL records, used to seek to a time without scanning. Segments are only memory-mapped when
+ * a query first touches them, startup just lists the files.
+ * <p>
+ * Records are fixed size: time, uuids, registry ids, coordinates and a few flags. Names and death
+ * messages are not journaled. Registry ids can shift between Minecraft versions.
+ */
+public class DeathJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger("CoopBot-DeathJournal");
+    private static final Path JOURNAL_DIR = Path.of("config", "coop-bot-deaths");
+
+    private static final int MAGIC = 0x43424A31; // "CBJ1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    // 8 time + 4 * 8 uuids + 2 * 4 type ids + 3 * 8 coords + 4 dimension + 4 flags
+    public static final int RECORD_SIZE = 80;
+    private static final int INDEX_ENTRY_SIZE = 12;
+    private static final int INDEX_INTERVAL = 256;
+    private static final long SEGMENT_BYTES = 16L * 1024 * 1024;
+    private static final int MAX_BATCH = 512;
+    private static final long FSYNC_INTERVAL_MS = 1000;
+
+    private static final int FLAG_PLAYER = 1;
+    private static final int FLAG_KILLER = 2;
+
+    public static final int DIMENSION_OTHER = 0;
+    public static final int DIMENSION_OVERWORLD = 1;
+    public static final int DIMENSION_NETHER = 2;
+    public static final int DIMENSION_END = 3;
+
+    /**
+     * One journaled death. killerMsb/killerLsb are 0 when there was no killer entity.
+     */
+    public record Entry(long timestamp, long entityMsb, long entityLsb, long killerMsb, long killerLsb,
+                        int entityTypeId, int killerTypeId, double x, double y, double z,
+                        int dimension, boolean playerDeath, boolean hasKiller) {
+        public UUID entityUUID() { return new UUID(entityMsb, entityLsb); }
+        public UUID killerUUID() { return hasKiller ? new UUID(killerMsb, killerLsb) : null; }
+    }
+
+    private static final class Segment {
+        final long number;
+        final Path dataPath;
+        final Path indexPath;
+        // Size readers may map, only grows for the active segment
+        volatile long durableSize;
+        volatile long firstTimestamp = Long.MIN_VALUE; // MIN_VALUE = not read yet
+        MappedByteBuffer mapped;
+        long mappedSize;
+        long[] indexTimes;
+        int[] indexRecords;
+        long indexedSize;
+
+        Segment(long number, Path dir) {
+            this.number = number;
+            this.dataPath = dir.resolve(String.format("segment-%08d.dat", number));
+            this.indexPath = dir.resolve(String.format("segment-%08d.idx", number));
+        }
+    }
+
+    private final Path dir;
+    private final int maxSegments;
+    private final BlockingQueue<DeathRecord> pending = new ArrayBlockingQueue<>(8192);
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    // Oldest first. Guarded by this, the writer only appends and drops from the front
+    private final List<Segment> segments = new ArrayList<>();
+
+    // Writer thread only
+    private Segment active;
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+    private long activeRecords;
+    private long lastSync = System.currentTimeMillis();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(MAX_BATCH * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(INDEX_ENTRY_SIZE * (MAX_BATCH / INDEX_INTERVAL + 2)).order(ByteOrder.LITTLE_ENDIAN);
+
+    public DeathJournal(int maxSegments) throws IOException {
+        this(JOURNAL_DIR, maxSegments);
+    }
+
+    public DeathJournal(Path dir, int maxSegments) throws IOException {
+        this.dir = dir;
+        this.maxSegments = Math.max(1, maxSegments);
+        Files.createDirectories(dir);
+
+        // Only list the files, nothing is read until a query needs it
+        long lastNumber = 0;
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.dat")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(8, name.length() - 4)));
+                } catch (NumberFormatException e) {
+                    LOGGER.warn("Ignoring unexpected journal file " + name);
+                }
+            }
+        }
+        numbers.sort(Long::compare);
+        for (long number : numbers) {
+            Segment segment = new Segment(number, dir);
+            segment.durableSize = Files.size(segment.dataPath);
+            lastNumber = number;
+            // Left behind by a run with no deaths
+            if (segment.durableSize <= HEADER_SIZE) {
+                Files.deleteIfExists(segment.dataPath);
+                Files.deleteIfExists(segment.indexPath);
+                continue;
+            }
+            segments.add(segment);
+        }
+
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last == null || last.durableSize >= SEGMENT_BYTES || !reopenSegment(last)) {
+            openSegment(lastNumber + 1);
+        }
+        dropOldSegments();
+
+        writerThread = new Thread(this::runWriter, "CoopBot-DeathJournal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        LOGGER.info("Death journal opened at {} ({} existing segments)", dir, numbers.size());
+    }
+
+    /**
+     * Any thread, never blocks. Drops the death if the writer has fallen far behind.
+     */
+    public void append(DeathRecord death) {
+        if (!pending.offer(death)) {
+            dropped.increment();
+        }
+    }
+
+    // ----------
+    // Writing
+    // ----------
+
+    private void runWriter() {
+        List<DeathRecord> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !pending.isEmpty()) {
+            try {
+                DeathRecord first = pending.poll(FSYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    pending.drainTo(batch, MAX_BATCH - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                maybeSync(false);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (Exception e) {
+                LOGGER.error("Failed to write death journal: " + e.getMessage(), e);
+                batch.clear();
+            }
+        }
+
+        try {
+            maybeSync(true);
+            dataChannel.close();
+            indexChannel.close();
+        } catch (IOException e) {
+            LOGGER.error("Failed to close death journal: " + e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<DeathRecord> batch) throws IOException {
+        writeBuffer.clear();
+        indexBuffer.clear();
+
+        for (DeathRecord death : batch) {
+            if (activeRecords % INDEX_INTERVAL == 0) {
+                indexBuffer.putLong(death.getTimestamp()).putInt((int) activeRecords);
+            }
+            encode(death, writeBuffer);
+            activeRecords++;
+        }
+
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) dataChannel.write(writeBuffer);
+        indexBuffer.flip();
+        while (indexBuffer.hasRemaining()) indexChannel.write(indexBuffer);
+        written.add(batch.size());
+
+        if (active.firstTimestamp == Long.MIN_VALUE) {
+            active.firstTimestamp = batch.get(0).getTimestamp();
+        }
+        if (dataChannel.position() >= SEGMENT_BYTES) {
+            maybeSync(true);
+            dataChannel.close();
+            indexChannel.close();
+            openSegment(active.number + 1);
+            dropOldSegments();
+        }
+    }
+
+    private void maybeSync(boolean force) throws IOException {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastSync < FSYNC_INTERVAL_MS) return;
+
+        dataChannel.force(false);
+        indexChannel.force(false);
+        lastSync = now;
+        // Readers only see records once they are on disk
+        active.durableSize = dataChannel.position();
+    }
+
+    private void openSegment(long number) throws IOException {
+        Segment segment = new Segment(number, dir);
+        dataChannel = FileChannel.open(segment.dataPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(segment.indexPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis() / 1000).flip();
+        while (header.hasRemaining()) dataChannel.write(header);
+
+        segment.durableSize = HEADER_SIZE;
+        active = segment;
+        activeRecords = 0;
+        synchronized (this) {
+            segments.add(segment);
+        }
+    }
+
+    // Appends to an existing segment. A record cut short by a crash is truncated, and index entries
+    // that never made it to disk are rebuilt from the records. False if the segment isn't usable
+    private boolean reopenSegment(Segment segment) {
+        FileChannel data = null;
+        FileChannel index = null;
+        try {
+            data = FileChannel.open(segment.dataPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            data.read(header, 0);
+            header.flip();
+            if (header.remaining() < 8 || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                LOGGER.warn("Not appending to " + segment.dataPath.getFileName() + ", unexpected header");
+                data.close();
+                return false;
+            }
+
+            long records = (data.size() - HEADER_SIZE) / RECORD_SIZE;
+            data.truncate(HEADER_SIZE + records * RECORD_SIZE);
+            data.position(HEADER_SIZE + records * RECORD_SIZE);
+
+            index = FileChannel.open(segment.indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long entries = (records + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+            long existing = Math.min(entries, index.size() / INDEX_ENTRY_SIZE);
+            index.truncate(existing * INDEX_ENTRY_SIZE);
+            index.position(existing * INDEX_ENTRY_SIZE);
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer time = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            for (long i = existing; i < entries; i++) {
+                long record = i * INDEX_INTERVAL;
+                time.clear();
+                data.read(time, HEADER_SIZE + record * RECORD_SIZE);
+                entry.clear();
+                entry.putLong(time.flip().getLong()).putInt((int) record).flip();
+                while (entry.hasRemaining()) index.write(entry);
+            }
+
+            dataChannel = data;
+            indexChannel = index;
+            active = segment;
+            activeRecords = records;
+            segment.durableSize = data.position();
+            LOGGER.info("Appending to death journal segment {} ({} deaths)", segment.dataPath.getFileName(), records);
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to reopen " + segment.dataPath.getFileName() + ", starting a new segment: " + e.getMessage());
+            try {
+                if (data != null) data.close();
+                if (index != null) index.close();
+            } catch (IOException ignored) {
+                // Already failing, the new segment is what matters
+            }
+            return false;
+        }
+    }
+
+    private void dropOldSegments() {
+        List<Segment> removed = new ArrayList<>();
+        synchronized (this) {
+            while (segments.size() > maxSegments) {
+                removed.add(segments.remove(0));
+            }
+        }
+        for (Segment segment : removed) {
+            try {
+                Files.deleteIfExists(segment.dataPath);
+                Files.deleteIfExists(segment.indexPath);
+                LOGGER.info("Deleted old death journal segment " + segment.dataPath.getFileName());
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete old journal segment: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void encode(DeathRecord death, ByteBuffer buffer) {
+        UUID entityUUID = death.getEntityUUID();
+        UUID killerUUID = death.getKillerUUID();
+        int flags = (death.isPlayerDeath() ? FLAG_PLAYER : 0) | (killerUUID != null ? FLAG_KILLER : 0);
+
+        buffer.putLong(death.getTimestamp());
+        buffer.putLong(entityUUID != null ? entityUUID.getMostSignificantBits() : 0L);
+        buffer.putLong(entityUUID != null ? entityUUID.getLeastSignificantBits() : 0L);
+        buffer.putLong(killerUUID != null ? killerUUID.getMostSignificantBits() : 0L);
+        buffer.putLong(killerUUID != null ? killerUUID.getLeastSignificantBits() : 0L);
+        buffer.putInt(death.getEntityType() != null ? BuiltInRegistries.ENTITY_TYPE.getId(death.getEntityType()) : -1);
+        buffer.putInt(death.getKillerType() != null ? BuiltInRegistries.ENTITY_TYPE.getId(death.getKillerType()) : -1);
+        buffer.putDouble(death.getDeathX());
+        buffer.putDouble(death.getDeathY());
+        buffer.putDouble(death.getDeathZ());
+        buffer.putInt(dimensionCode(death.getDimension()));
+        buffer.putInt(flags);
+    }
+
+    private static int dimensionCode(String dimension) {
+        if (dimension == null) return DIMENSION_OTHER;
+        return switch (dimension) {
+            case "the Overworld" -> DIMENSION_OVERWORLD;
+            case "the Nether" -> DIMENSION_NETHER;
+            case "the End" -> DIMENSION_END;
+            default -> DIMENSION_OTHER;
+        };
+    }
+
+    // ----------
+    // Reading
+    // ----------
+
+    /**
+     * Calls consumer for every journaled death with from <= timestamp <= to (epoch seconds), oldest first.
+     * Only segments overlapping the range are mapped, and the time index is used to seek into them.
+     */
+    public void query(long from, long to, Consumer<Entry> consumer) throws IOException {
+        List<Segment> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments);
+        }
+
+        for (int i = 0; i < snapshot.size(); i++) {
+            Segment segment = snapshot.get(i);
+            long first = firstTimestamp(segment);
+            if (first == Long.MIN_VALUE || first > to) continue;
+
+            // The next segment starts after this one ends, skip segments that are entirely too old
+            if (i + 1 < snapshot.size()) {
+                long nextFirst = firstTimestamp(snapshot.get(i + 1));
+                if (nextFirst != Long.MIN_VALUE && nextFirst < from) continue;
+            }
+
+            if (!scanSegment(segment, from, to, consumer)) break;
+        }
+    }
+
+    // Returns false once past the end of the range
+    private boolean scanSegment(Segment segment, long from, long to, Consumer<Entry> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        long records;
+        int startRecord;
+        synchronized (segment) {
+            buffer = map(segment);
+            if (buffer == null) return true;
+            records = Math.max(0, (segment.mappedSize - HEADER_SIZE) / RECORD_SIZE);
+            startRecord = seek(segment, from);
+        }
+
+        ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (long record = startRecord; record < records; record++) {
+            int offset = (int) (HEADER_SIZE + record * RECORD_SIZE);
+            long timestamp = view.getLong(offset);
+            if (timestamp < from) continue;
+            if (timestamp > to) return false;
+            consumer.accept(decode(view, offset));
+        }
+        return true;
+    }
+
+    private MappedByteBuffer map(Segment segment) throws IOException {
+        long size = segment.durableSize;
+        if (size <= HEADER_SIZE) return null;
+        // Closed segments are mapped once, the active one is remapped when it has grown
+        if (segment.mapped == null || segment.mappedSize < size) {
+            try (FileChannel channel = FileChannel.open(segment.dataPath, StandardOpenOption.READ)) {
+                size = Math.min(size, channel.size());
+                segment.mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                segment.mappedSize = size;
+            }
+            checkHeader(segment);
+        }
+        return segment.mapped;
+    }
+
+    private static void checkHeader(Segment segment) throws IOException {
+        ByteBuffer view = segment.mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (view.getInt(0) != MAGIC || view.getInt(4) != VERSION) {
+            throw new IOException("Not a death journal segment: " + segment.dataPath);
+        }
+    }
+
+    // Last indexed record at or before from, by binary search over the sparse index
+    private int seek(Segment segment, long from) throws IOException {
+        loadIndex(segment);
+        long[] times = segment.indexTimes;
+        int low = 0;
+        int high = times.length - 1;
+        int found = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < from) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return times.length == 0 ? 0 : segment.indexRecords[found];
+    }
+
+    private void loadIndex(Segment segment) throws IOException {
+        long size = Files.size(segment.indexPath);
+        if (segment.indexTimes != null && segment.indexedSize == size) return;
+
+        int entries = (int) (size / INDEX_ENTRY_SIZE);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment.indexPath)).order(ByteOrder.LITTLE_ENDIAN);
+        long[] times = new long[entries];
+        int[] records = new int[entries];
+        for (int i = 0; i < entries; i++) {
+            times[i] = buffer.getLong();
+            records[i] = buffer.getInt();
+        }
+        segment.indexTimes = times;
+        segment.indexRecords = records;
+        segment.indexedSize = size;
+    }
+
+    // The first index entry is always record 0, so a segment's start time costs a 12 byte read
+    private long firstTimestamp(Segment segment) throws IOException {
+        if (segment.firstTimestamp != Long.MIN_VALUE) return segment.firstTimestamp;
+        if (!Files.exists(segment.indexPath) || Files.size(segment.indexPath) < INDEX_ENTRY_SIZE) return Long.MIN_VALUE;
+
+        try (FileChannel channel = FileChannel.open(segment.indexPath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(buffer, 0);
+            segment.firstTimestamp = buffer.flip().getLong();
+        }
+        return segment.firstTimestamp;
+    }
+
+    private static Entry decode(ByteBuffer view, int offset) {
+        int flags = view.getInt(offset + 76);
+        return new Entry(
+                view.getLong(offset),
+                view.getLong(offset + 8),
+                view.getLong(offset + 16),
+                view.getLong(offset + 24),
+                view.getLong(offset + 32),
+                view.getInt(offset + 40),
+                view.getInt(offset + 44),
+                view.getDouble(offset + 48),
+                view.getDouble(offset + 56),
+                view.getDouble(offset + 64),
+                view.getInt(offset + 72),
+                (flags & FLAG_PLAYER) != 0,
+                (flags & FLAG_KILLER) != 0
+        );
+    }
+
+    // ----------
+    // Stats / lifecycle
+    // ----------
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Writes out anything still queued, fsyncs and closes.
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("Death journal closed ({} written, {} dropped)", written.sum(), dropped.sum());
+    }
+}
@@ -0,0 +1,298 @@
+package com.coop.bot;
+
+import com.coop.bot.objects.DeathRecord;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.EntityTypes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running death and kill counters, updated once per death so stats never need to walk the history.
+ * <p>
+ * Keeps per-player deaths, per-killer kills (broken down by victim entity type), per-dimension
+ * counts and rolling 1h / 24h totals in minute buckets. Leaderboards are small top-k lists updated
+ * on every increment. Counters only ever go up, so a name can only join the top-k when its own count
+ * changes, which keeps the lists exact without rescanning.
+ * <p>
+ * Counts start from zero each time the server starts, except the 1h / 24h windows, which are seeded
+ * from the death journal (when it is enabled) so a restart doesn't empty them.
+ */
+public class DeathStatistics {
+    public static final int TOP_K = 10;
+    public static final long WINDOW_SECONDS = 24 * 60 * 60;
+
+    private final long startedAt = System.currentTimeMillis() / 1000;
+    private long totalDeaths;
+    private long totalPlayerDeaths;
+
+    private final TObjectIntHashMap<String> playerDeaths = new TObjectIntHashMap<>();
+    private final TObjectIntHashMap<String> playerKills = new TObjectIntHashMap<>();
+    // killer name -> (victim type registry id -> kills)
+    private final Map<String, TIntIntHashMap> killsByType = new HashMap<>();
+    private final TIntIntHashMap deathsByType = new TIntIntHashMap();
+    private final TObjectIntHashMap<String> deathsByDimension = new TObjectIntHashMap<>();
+
+    private final TopK topDeaths = new TopK(TOP_K);
+    private final TopK topKillers = new TopK(TOP_K);
+
+    private final RollingWindow lastHour = new RollingWindow(60, 60);
+    private final RollingWindow lastDay = new RollingWindow(24 * 60, 60);
+    private final RollingWindow lastHourPlayers = new RollingWindow(60, 60);
+    private final RollingWindow lastDayPlayers = new RollingWindow(24 * 60, 60);
+
+    public record Entry(String name, int count) {}
+
+    public record PlayerStats(String name, int deaths, int kills, List<Entry> topVictims) {}
+
+    /**
+     * Death worker thread.
+     */
+    public synchronized void record(DeathRecord death) {
+        long timestamp = death.getTimestamp();
+        totalDeaths++;
+        lastHour.add(timestamp);
+        lastDay.add(timestamp);
+
+        if (death.getDimension() != null) {
+            deathsByDimension.adjustOrPutValue(death.getDimension(), 1, 1);
+        }
+        if (death.getEntityType() != null) {
+            deathsByType.adjustOrPutValue(BuiltInRegistries.ENTITY_TYPE.getId(death.getEntityType()), 1, 1);
+        }
+
+        if (death.isPlayerDeath() && death.getEntityName() != null) {
+            totalPlayerDeaths++;
+            lastHourPlayers.add(timestamp);
+            lastDayPlayers.add(timestamp);
+            String name = death.getEntityName();
+            topDeaths.update(name, playerDeaths.adjustOrPutValue(name, 1, 1));
+        }
+
+        // Leaderboards only count kills by players, not mobs killing each other
+        if (death.getKillerType() == EntityTypes.PLAYER && death.getKillerName() != null) {
+            String killer = death.getKillerName();
+            topKillers.update(killer, playerKills.adjustOrPutValue(killer, 1, 1));
+            if (death.getEntityType() != null) {
+                killsByType.computeIfAbsent(killer, k -> new TIntIntHashMap())
+                        .adjustOrPutValue(BuiltInRegistries.ENTITY_TYPE.getId(death.getEntityType()), 1, 1);
+            }
+        }
+    }
+
+    /**
+     * Startup, before any death is recorded. Counts a death from an earlier run towards the 1h / 24h
+     * windows only, totals and leaderboards are for this run.
+     */
+    public synchronized void seedWindow(long timestamp, boolean playerDeath) {
+        lastHour.add(timestamp);
+        lastDay.add(timestamp);
+        if (playerDeath) {
+            lastHourPlayers.add(timestamp);
+            lastDayPlayers.add(timestamp);
+        }
+    }
+
+    // ----------
+    // Queries
+    // ----------
+
+    public synchronized long getTotalDeaths() {
+        return totalDeaths;
+    }
+
+    public synchronized long getTotalPlayerDeaths() {
+        return totalPlayerDeaths;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized int getDeathsLastHour(long now) {
+        return lastHour.total(now);
+    }
+
+    public synchronized int getDeathsLastDay(long now) {
+        return lastDay.total(now);
+    }
+
+    public synchronized int getPlayerDeathsLastHour(long now) {
+        return lastHourPlayers.total(now);
+    }
+
+    public synchronized int getPlayerDeathsLastDay(long now) {
+        return lastDayPlayers.total(now);
+    }
+
+    public synchronized List<Entry> getTopDeaths(int limit) {
+        return topDeaths.snapshot(limit);
+    }
+
+    public synchronized List<Entry> getTopKillers(int limit) {
+        return topKillers.snapshot(limit);
+    }
+
+    public synchronized Map<String, Integer> getDeathsByDimension() {
+        Map<String, Integer> result = new HashMap<>();
+        deathsByDimension.forEachEntry((dimension, count) -> {
+            result.put(dimension, count);
+            return true;
+        });
+        return result;
+    }
+
+    public synchronized int getDeathsOfType(EntityType<?> type) {
+        return deathsByType.get(BuiltInRegistries.ENTITY_TYPE.getId(type));
+    }
+
+    /**
+     * Case-insensitive on the player name, returns null if the player has no deaths or kills.
+     */
+    public synchronized PlayerStats getPlayerStats(String name, int topVictims) {
+        String key = findName(name);
+        if (key == null) return null;
+
+        List<Entry> victims = new ArrayList<>();
+        TIntIntHashMap byType = killsByType.get(key);
+        if (byType != null) {
+            // Bounded by the number of entity types, not the history
+            TopK top = new TopK(topVictims);
+            byType.forEachEntry((typeId, count) -> {
+                top.update(typeName(typeId), count);
+                return true;
+            });
+            victims = top.snapshot(topVictims);
+        }
+        return new PlayerStats(key, playerDeaths.get(key), playerKills.get(key), victims);
+    }
+
+    private String findName(String name) {
+        if (playerDeaths.containsKey(name) || playerKills.containsKey(name)) return name;
+        // Fall back to a case-insensitive match, only one entry per player so this stays small
+        for (Object key : playerDeaths.keys()) {
+            if (((String) key).equalsIgnoreCase(name)) return (String) key;
+        }
+        for (Object key : playerKills.keys()) {
+            if (((String) key).equalsIgnoreCase(name)) return (String) key;
+        }
+        return null;
+    }
+
+    private static String typeName(int typeId) {
+        EntityType<?> type = BuiltInRegistries.ENTITY_TYPE.byId(typeId);
+        if (type == null || EntityType.getKey(type) == null) return "unknown";
+        return EntityType.getKey(type).getPath();
+    }
+
+    // ----------
+    // Helpers
+    // ----------
+
+    /**
+     * The k highest counts, highest first. update must be called with a key's new count every time it changes.
+     */
+    private static final class TopK {
+        private final String[] names;
+        private final int[] counts;
+        private int size;
+
+        TopK(int k) {
+            this.names = new String[k];
+            this.counts = new int[k];
+        }
+
+        void update(String name, int count) {
+            int index = -1;
+            for (int i = 0; i < size; i++) {
+                if (names[i].equals(name)) {
+                    index = i;
+                    break;
+                }
+            }
+
+            if (index == -1) {
+                if (size < names.length) {
+                    index = size++;
+                } else if (count > counts[size - 1]) {
+                    index = size - 1;
+                } else {
+                    return;
+                }
+                names[index] = name;
+            }
+            counts[index] = count;
+
+            // Bubble up, counts only grow
+            while (index > 0 && counts[index] > counts[index - 1]) {
+                swap(index, index - 1);
+                index--;
+            }
+        }
+
+        private void swap(int a, int b) {
+            String name = names[a];
+            names[a] = names[b];
+            names[b] = name;
+            int count = counts[a];
+            counts[a] = counts[b];
+            counts[b] = count;
+        }
+
+        List<Entry> snapshot(int limit) {
+            int n = Math.min(limit, size);
+            List<Entry> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                result.add(new Entry(names[i], counts[i]));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Count over the last (buckets * bucketSeconds) seconds, kept as a ring of buckets and a running total.
+     */
+    private static final class RollingWindow {
+        private final int[] counts;
+        private final long[] bucketStarts;
+        private final int bucketSeconds;
+        private int total;
+
+        RollingWindow(int buckets, int bucketSeconds) {
+            this.counts = new int[buckets];
+            this.bucketStarts = new long[buckets];
+            this.bucketSeconds = bucketSeconds;
+        }
+
+        void add(long timestamp) {
+            long bucket = timestamp / bucketSeconds;
+            int slot = (int) (bucket % counts.length);
+            // Older than the window, its slot already holds a newer bucket
+            if (bucketStarts[slot] > bucket) return;
+            if (bucketStarts[slot] != bucket) {
+                total -= counts[slot];
+                counts[slot] = 0;
+                bucketStarts[slot] = bucket;
+            }
+            counts[slot]++;
+            total++;
+        }
+
+        int total(long now) {
+            long oldest = now / bucketSeconds - counts.length + 1;
+            // Drop buckets that have aged out since the last death
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0 && bucketStarts[i] < oldest) {
+                    total -= counts[i];
+                    counts[i] = 0;
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.coop.bot;
 
 import com.coop.bot.objects.DeathRecord;
+import com.coop.bot.objects.PlayerProfile;
 import com.coop.bot.objects.RegisteredUser;
 import com.coop.bot.config.ModConfig;
+import com.coop.bot.metrics.MetricRegistry;
 
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
@@ -10,6 +12,10 @@ import net.minecraft.world.entity.EntityTypes;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.Mob;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.Identifier;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraft.server.level.ServerPlayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,23 +24,28 @@ import java.time.Instant;
 import java.util.*;
 
 import net.minecraft.world.damagesource.DamageSource;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 
 public class DeathTracking {
-    private final List<DeathRecord> deathHistory = new ArrayList<>();
+    private final DeathHistory deathHistory;
+    private final DeathStatistics deathStatistics = new DeathStatistics();
+    private final DeathJournal deathJournal; // null when disabled or the directory couldn't be opened
     private static final Logger LOGGER = LoggerFactory.getLogger("Chicken-Bot-Death-Tracking");
     private static DiscordBotManager discordBot;
     private static ModConfig config;
-    private final Map<String, FarmingSession> activeFarmingSessions = new ConcurrentHashMap<>();
-    private final Set<String> recentlyNotifiedFarms = ConcurrentHashMap.newKeySet();
+    // Owned by the death worker thread, which records deaths and calls tick
+    private final FarmingDetector farmingDetector = new FarmingDetector(Instant.now().getEpochSecond(),
+            this::sendFarmingNotification, this::sendFarmingSummary);
+    private final HotspotDetector hotspotDetector = new HotspotDetector(Instant.now().getEpochSecond(),
+            this::sendHotspotNotification, this::sendHotspotSummary);
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    private static final long FARMING_CHECK_INTERVAL = 5; // Check every 5 seconds
-    private static final long FARMING_INACTIVITY_THRESHOLD = 60; // 60 seconds
+    private static final Map<ResourceKey<Level>, String> DIMENSION_NAMES = new IdentityHashMap<>();
+
+    static {
+        DIMENSION_NAMES.put(Level.OVERWORLD, "the Overworld");
+        DIMENSION_NAMES.put(Level.NETHER, "the Nether");
+        DIMENSION_NAMES.put(Level.END, "the End");
+    }
 
     // This is the best I can do for mob xp atm
     private static final Map<EntityType<?>, Integer> XP_VALUES = new IdentityHashMap<>();
@@ -87,76 +98,118 @@ public class DeathTracking {
     public DeathTracking(DiscordBotManager discordBot, ModConfig config) {
         this.discordBot = discordBot;
         this.config = config;
-        startFarmingMonitor();
+        this.deathHistory = new DeathHistory(config.getDeathHistoryMemoryKb() * 1024L);
+        LOGGER.info("Death history holds {} deaths (~{} KB)",
+                deathHistory.getCapacity(), deathHistory.bytesInUse() / 1024);
+        this.deathJournal = openJournal(config);
+        seedStatistics();
+        registerMetrics();
+    }
+
+    // The last day of journaled deaths, so /stats' 1h / 24h figures survive a restart. Only the
+    // segments covering that day are mapped, and the time index skips straight to its start
+    private void seedStatistics() {
+        if (deathJournal == null) return;
+
+        long start = System.nanoTime();
+        long now = Instant.now().getEpochSecond();
+        long[] seeded = new long[1];
+        try {
+            deathJournal.query(now - DeathStatistics.WINDOW_SECONDS, now, entry -> {
+                deathStatistics.seedWindow(entry.timestamp(), entry.playerDeath());
+                seeded[0]++;
+            });
+            LOGGER.info("Seeded stats with {} deaths from the journal in {} ms",
+                    seeded[0], (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            LOGGER.error("Failed to read the death journal, stats start empty: " + e.getMessage());
+        }
+    }
+
+    private void registerMetrics() {
+        MetricRegistry metrics = MetricRegistry.getInstance();
+        metrics.gauge("coopbot_death_history_size", "Deaths kept in memory", deathHistory::size);
+        metrics.counter("coopbot_deaths_recorded_total", "Deaths recorded since the server started", deathHistory::totalRecorded);
+        metrics.gauge("coopbot_farming_sessions_active", "Farming sessions being tracked", farmingDetector::getActiveSessions);
+        metrics.gauge("coopbot_death_hotspots_active", "Killer-less farms being tracked", hotspotDetector::getActiveHotspots);
+        if (deathJournal != null) {
+            metrics.counter("coopbot_death_journal_written_total", "Deaths written to the journal", deathJournal::getWritten);
+            metrics.counter("coopbot_death_journal_dropped_total", "Deaths the journal could not keep up with", deathJournal::getDropped);
+        }
     }
 
     // Boolean return = if message should send
     public boolean recordDeath(DeathRecord death) {
         //logDeath(death); // Commenting this because it is spamming console a LOT 18/12/25
         deathHistory.add(death);
+        deathStatistics.record(death);
+        if (deathJournal != null) {
+            deathJournal.append(death);
+        }
 
-        // Check for farming
-        boolean shouldSendDeathMessage = checkAndHandleFarming(death);
+        // Don't send death messages while actively farming, by a player or by fall damage / lava etc.
+        boolean shouldSendDeathMessage = !farmingDetector.recordKill(death) && !hotspotDetector.recordDeath(death);
 
-        // Clean up old sessions occasionally (every 1000 deaths)
-        // TODO: calculate a reasonable number for this (how much memory do these objects take up)
-        if (deathHistory.size() % 1000 == 0) {
-            cleanupOldSessions();
+        // History itself is a fixed ring (DeathHistory.BYTES_PER_DEATH per death), so it no longer grows
+        if (deathHistory.totalRecorded() % 1000 == 0) {
+            LOGGER.debug("Death history: {}/{} deaths, ~{} KB",
+                    deathHistory.size(), deathHistory.getCapacity(), deathHistory.bytesInUse() / 1024);
         }
 
         return shouldSendDeathMessage;
     }
     
-    public static DeathRecord createDeathRecord(LivingEntity entity, DamageSource damageSource) {
+    private static DeathJournal openJournal(ModConfig config) {
+        if (!config.isDeathJournalEnabled()) return null;
+        try {
+            return new DeathJournal(config.getDeathJournalMaxSegments());
+        } catch (Exception e) {
+            LOGGER.error("Failed to open death journal, deaths won't be persisted: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public DeathStatistics getDeathStatistics() {
+        return deathStatistics;
+    }
+
+    public DeathJournal getDeathJournal() {
+        return deathJournal;
+    }
+
+    /**
+     * Ends farming sessions that went quiet. Called about once a second from the death worker thread.
+     */
+    public void tick() {
+        long now = Instant.now().getEpochSecond();
+        farmingDetector.advance(now);
+        hotspotDetector.advance(now);
+    }
+
+    public void shutdown() {
+        if (deathJournal != null) {
+            deathJournal.shutdown();
+        }
+    }
+
+    public static DeathRecord createDeathRecord(LivingEntity entity, DamageSource damageSource, boolean post) {
         DeathRecord.Builder builder = new DeathRecord.Builder()
+                .post(post)
                 .entityUUID(entity.getUUID())
                 .entityName(entity.getName().getString())
                 .entityType(entity.getType())
-                .deathMessage(getDeathMessage(entity, damageSource))
-                .damageSource(damageSource.type().msgId());
+                // Tracked-only deaths are never posted, so they don't need a message at all
+                .deathMessage(post ? getDeathMessage(entity) : null)
+                .damageSource(damageSource.type().msgId())
+                .playerDeath(entity instanceof ServerPlayer);
 
         // Get coords
         double x = entity.getX();
         double y = entity.getY();
         double z = entity.getZ();
-        String dimension;
 
         if (entity.level() != null) {
-            String dimString = entity.level().dimension().toString();
-            // Extract from "ResourceKey[minecraft:dimension / minecraft:overworld]"
-            int lastSlash = dimString.lastIndexOf('/');
-            if (lastSlash != -1) {
-                dimension = dimString.substring(lastSlash + 1).trim();
-                if (dimension.endsWith("]")) {
-                    dimension = dimension.substring(0, dimension.length() - 1);
-                }
-            } else {
-                dimension = "unknown";
-            }
-            if (dimension.startsWith("minecraft:")) {
-                dimension = dimension.substring(10);
-            }
-            
-            // Format dimension names with proper capitalization
-            switch (dimension) {
-                case "overworld":
-                    dimension = "the Overworld";
-                    break;
-                case "the_nether":
-                    dimension = "the Nether";
-                    break;
-                case "the_end":
-                    dimension = "the End";
-                    break;
-                default:
-                    // For custom dimensions, keep as-is but capitalize first letter
-                    if (dimension.length() > 0) {
-                        dimension = Character.toUpperCase(dimension.charAt(0)) + dimension.substring(1);
-                    }
-                    break;
-            }
-            
-            builder.deathLocation(x, y, z, dimension);
+            builder.deathLocation(x, y, z, getDimensionName(entity.level().dimension()));
         } else {
             builder.deathLocation(x, y, z);
         }
@@ -182,42 +235,48 @@ public class DeathTracking {
     }
 
     public List<DeathRecord> getDeathsOfEntity(UUID id) {
-        List<DeathRecord> result = new ArrayList<>();
-        for (DeathRecord death : deathHistory) {
-            if (death.getEntityUUID().equals(id)) {
-                result.add(death);
-            }
-        }
-        return result;
+        return deathHistory.getDeathsOfEntity(id);
     }
 
     public List<DeathRecord> getRecentDeaths(int count) {
-        int start = Math.max(0, deathHistory.size() - count);
-        return deathHistory.subList(start, deathHistory.size());
+        return deathHistory.getRecentDeaths(count);
+    }
+
+    public DeathHistory getDeathHistory() {
+        return deathHistory;
     }
 
     public boolean isFarming(DeathRecord record) {
-        if (deathHistory.isEmpty() || record == null) {
+        if (deathHistory.size() == 0 || record == null) {
             return false;
         }
 
         long currentTime = Instant.now().getEpochSecond();
         long thirtySecondsAgo = currentTime - 30;
 
-        long count = deathHistory.stream()
-                .filter(dr -> dr.getTimestamp() >= thirtySecondsAgo)
-                .filter(dr -> Objects.equals(dr.getEntityName(), record.getEntityName()))
-                .filter(dr -> Objects.equals(dr.getKillerName(), record.getKillerName()))
-                .limit(10) // Optimization: stop counting after 10 matches
-                .count();
+        // Constant time lookup in the (killer, victim type) index
+        int count = deathHistory.countKills(record.getKillerUUID(), record.getEntityType(), thirtySecondsAgo, currentTime);
 
         return count >= 10;
     }
 
-    public static String getDeathMessage(LivingEntity entity, DamageSource source){
-        // Get death message through combat tracker
-        Component deathText = entity.getCombatTracker().getDeathMessage();
-        return deathText != null ? deathText.getString() : "died";
+    // Server thread, the combat tracker is cleared soon after death. Rendering to a String happens later, if posted.
+    public static Component getDeathMessage(LivingEntity entity) {
+        return entity.getCombatTracker().getDeathMessage();
+    }
+
+    /**
+     * "the Overworld", "the Nether", "the End", or the capitalised id of a custom dimension.
+     * Server thread only. ResourceKeys are interned, so each dimension is looked up by identity and named once.
+     */
+    public static String getDimensionName(ResourceKey<Level> dimension) {
+        return DIMENSION_NAMES.computeIfAbsent(dimension, DeathTracking::customDimensionName);
+    }
+
+    private static String customDimensionName(ResourceKey<Level> dimension) {
+        Identifier id = dimension.identifier();
+        String name = "minecraft".equals(id.getNamespace()) ? id.getPath() : id.toString();
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
     }
 
     private void logDeath(DeathRecord death) {
@@ -229,229 +288,127 @@ public class DeathTracking {
     // Farming sessions
     // ----------
 
-    public static class FarmingSession {
-        private final String killerName;
-        private final String entityName;
-        private final EntityType<?> entityType;
-        private final UUID killerUUID;
-        private final long startTime;
-        private int killCount;
-        private int xpDropped;
-        private long lastKillTime;
-        private boolean notificationSent;
-
-        public FarmingSession(String killerName, UUID killerUUID, String entityName,  EntityType<?> entityType) {
-            this.killerName = killerName;
-            this.killerUUID = killerUUID;
-            this.entityName = entityName;
-            this.entityType = entityType;
-            this.startTime = Instant.now().getEpochSecond();
-            this.lastKillTime = this.startTime;
-            this.killCount = 1;
-            this.notificationSent = false;
-        }
-
-        public void recordKill() {
-            this.killCount++;
-            this.lastKillTime = Instant.now().getEpochSecond();
-        }
-
-        public boolean isActive() {
-            long currentTime = Instant.now().getEpochSecond();
-            return (currentTime - lastKillTime) <= 60; // 60 seconds since last kill
-        }
-
-        public boolean shouldNotify() {
-            return killCount >= 10 && !notificationSent;
-        }
-
-        public void markNotificationSent() {
-            this.notificationSent = true;
-        }
-
-        public String getSessionKey() {
-            return (killerUUID != null ? killerUUID.toString() : killerName) + ":" + entityName;
-        }
-
-        public int getKillCount() {
-            return killCount;
-        }
-
-        public String getKillerName() {
-            return killerName;
-        }
-
-        public String getEntityName() {
-            return entityName;
-        }
-
-        public boolean isNotificationSent() {
-            return notificationSent;
-        }
-
-        public String getFormattedDuration() {
-            long duration = lastKillTime - startTime;
-            long minutes = duration / 60;
-            long seconds = duration % 60;
-            if (minutes > 0) {
-                return String.format("%dm %ds", minutes, seconds);
-            }
-            return String.format("%ds", seconds);
-        }
+    // I have long pondered if this should sit in DiscordBotManager
+    private void sendFarmingNotification(FarmingDetector.Session session) {
+        String message = config.getFarmingNotificationTemplate().render(session.getKillerName(), session.getEntityName());
 
-        public String getFormattedSummary() {
-            long killsPerMinute = (killCount * 60) / Math.max(1, (lastKillTime - startTime));
-            int mobXpValue = getMobXpValue(entityType) * killCount;
-            return String.format(
-                    "**%s** farmed **%s**\n" +
-                            "• Total Kills: %d\n" +
-                            "• Experience dropped: %d\n" +
-                            "• Duration: %s\n" +
-                            "• Rate: ~%d kills/min\n" +
-                            "• Started: <t:%d:R>\n" +
-                            "• Ended: <t:%d:R>",
-                    killerName, entityName, killCount, mobXpValue, getFormattedDuration(),
-                    killsPerMinute, startTime, lastKillTime
-            );
+        try {
+            discordBot.sendToDiscord(message, OutboundScheduler.Lane.MOB); // Send to mob channel
+            LOGGER.info("Farming notification sent: {} farming {}",
+                    session.getKillerName(), session.getEntityName());
+        } catch (Exception e) {
+            LOGGER.error("Failed to send farming notification: " + e.getMessage());
         }
     }
 
-    private boolean checkAndHandleFarming(DeathRecord death) {
-        if (death == null || death.getKillerName() == null) {
-            return true; // Send death message if no killer
+    private void sendFarmingSummary(FarmingDetector.Session session) {
+        // Check visibility preferences for registered players
+        String killerName = session.getKillerName();
+        PlayerProfile profile = PlayerProfiles.getInstance().get(session.getKillerUUID());
+        // Summaries come a minute after the last kill, the killer may have logged off by then
+        boolean showDeaths;
+        if (profile != null) {
+            showDeaths = profile.isShowDeaths();
+        } else {
+            RegisteredUser reg = RegistrationStore.getInstance().getByMinecraftUuid(session.getKillerUUID());
+            if (reg == null) reg = RegistrationStore.getInstance().getByMinecraft(killerName);
+            showDeaths = reg == null || reg.isShowDeaths();
         }
-
-        String killerId = death.getKillerUUID() != null ?
-                death.getKillerUUID().toString() : death.getKillerName();
-        String sessionKey = killerId + ":" + death.getEntityName();
-
-        // Get or create farming session
-        FarmingSession session = activeFarmingSessions.computeIfAbsent(
-                sessionKey,
-                k -> new FarmingSession(death.getKillerName(), death.getKillerUUID(), death.getEntityName(), death.getEntityType())
-        );
-
-        // Update session with new kill
-        session.recordKill();
-
-        boolean shouldSendDeathMessage = true;
-
-        // Check if farming threshold reached and we haven't sent notification yet
-        if (session.shouldNotify() && !session.isNotificationSent()) {
-            // Mark that we've sent the notification
-            session.markNotificationSent();
-
-            // Add to recently notified set for suppression tracking
-            recentlyNotifiedFarms.add(sessionKey);
-
-            // Send farming notification to Discord
-            sendFarmingNotification(session);
+        if (!showDeaths) {
+            LOGGER.debug("Suppressed farming summary for " + killerName + " (visibility setting)");
+            return;
         }
+        
+        String message = config.getFarmingSummaryTemplate().render(formatFarmingSummary(session));
 
-        // Check if we should suppress death messages for this farming session
-        if (recentlyNotifiedFarms.contains(sessionKey) && session.isActive()) {
-            // Don't send death message while actively farming
-            shouldSendDeathMessage = false;
-            LOGGER.debug("Suppressing death message for farming session: {}", sessionKey);
+        try {
+            discordBot.sendToDiscord(message, OutboundScheduler.Lane.MOB);
+            LOGGER.info("Farming summary sent: {} completed farming {} ({} total kills)",
+                    session.getKillerName(), session.getEntityName(), session.getKillCount());
+        } catch (Exception e) {
+            LOGGER.error("Failed to send farming summary: " + e.getMessage());
         }
-
-        return shouldSendDeathMessage;
     }
 
-    // I have long pondered if this should sit in DiscordBotManager
-    private void sendFarmingNotification(FarmingSession session) {
-        String message = String.format(
-                "<:brasovpog:1411341162111045632> It seems %s is farming %ss",
-                session.getKillerName(),
-                session.getEntityName()
-        );
+    private void sendHotspotNotification(HotspotDetector.Hotspot hotspot) {
+        String message = config.getHotspotNotificationTemplate().render(hotspot.getEntityName(), hotspot.getLocation());
 
         try {
-            discordBot.sendToDiscord(message, true); // Send to mob channel
-            LOGGER.info("Farming notification sent: {} farming {}",
-                    session.getKillerName(), session.getEntityName());
+            discordBot.sendToDiscord(message, OutboundScheduler.Lane.MOB);
+            LOGGER.info("Hotspot notification sent: {} dying at {}", hotspot.getEntityName(), hotspot.getLocation());
         } catch (Exception e) {
-            LOGGER.error("Failed to send farming notification: " + e.getMessage());
+            LOGGER.error("Failed to send hotspot notification: " + e.getMessage());
         }
     }
 
-    private void startFarmingMonitor() {
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                checkAndCompleteFarmingSessions();
-            } catch (Exception e) {
-                LOGGER.error("Error in farming monitor: " + e.getMessage(), e);
-            }
-        }, FARMING_CHECK_INTERVAL, FARMING_CHECK_INTERVAL, TimeUnit.SECONDS);
-
-        LOGGER.info("Farming monitor started with {}s check interval", FARMING_CHECK_INTERVAL);
-    }
-
-    private void checkAndCompleteFarmingSessions() {
-        long currentTime = Instant.now().getEpochSecond();
-        Iterator<Map.Entry<String, FarmingSession>> iterator = activeFarmingSessions.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, FarmingSession> entry = iterator.next();
-            FarmingSession session = entry.getValue();
-
-            // Check if session is inactive for more than threshold
-            if ((currentTime - session.lastKillTime) > FARMING_INACTIVITY_THRESHOLD) {
-                iterator.remove();
+    private void sendHotspotSummary(HotspotDetector.Hotspot hotspot) {
+        String message = config.getFarmingSummaryTemplate().render(formatHotspotSummary(hotspot));
 
-                // Remove from suppression tracking
-                recentlyNotifiedFarms.remove(entry.getKey());
-
-                // Only send summary if farming was detected
-                if (session.isNotificationSent()) {
-                    sendFarmingSummary(session);
-                }
-
-                LOGGER.debug("Completed farming session: {} ({} kills in {})",
-                        entry.getKey(), session.getKillCount(), session.getFormattedDuration());
-            }
+        try {
+            discordBot.sendToDiscord(message, OutboundScheduler.Lane.MOB);
+            LOGGER.info("Hotspot summary sent: {} ({} total deaths)", hotspot.getLocation(), hotspot.getDeaths());
+        } catch (Exception e) {
+            LOGGER.error("Failed to send hotspot summary: " + e.getMessage());
         }
     }
 
-    // TODO: Make this commit to a db
-    public void cleanupOldSessions() {
-        Iterator<Map.Entry<String, FarmingSession>> iterator = activeFarmingSessions.entrySet().iterator();
-        long currentTime = Instant.now().getEpochSecond();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, FarmingSession> entry = iterator.next();
-            FarmingSession session = entry.getValue();
-
-            // Remove if inactive for over 60 seconds
-            if ((currentTime - session.lastKillTime) > 60) {
-                iterator.remove();
-                recentlyNotifiedFarms.remove(entry.getKey());
-                LOGGER.debug("Cleaned up inactive farming session: {}", entry.getKey());
-            }
+    private static String formatHotspotSummary(HotspotDetector.Hotspot hotspot) {
+        long startTime = hotspot.getStartTime();
+        long lastDeathTime = hotspot.getLastDeathTime();
+        long deathsPerMinute = (hotspot.getDeaths() * 60L) / Math.max(1, (lastDeathTime - startTime));
+
+        StringBuilder sb = new StringBuilder(String.format(
+                "Mob farm at **%s**\n" +
+                        "• Total Deaths: %d\n",
+                hotspot.getLocation(), hotspot.getDeaths()));
+        int mobXpValue = 0;
+        for (String name : hotspot.getEntityNames()) {
+            int deaths = hotspot.getDeaths(name);
+            mobXpValue += getMobXpValue(hotspot.getEntityType(name)) * deaths;
+            sb.append(String.format("  • %s: %d\n", name, deaths));
         }
+        StringBuilder causes = new StringBuilder();
+        for (String source : hotspot.getDamageSources()) {
+            if (causes.length() > 0) causes.append(", ");
+            causes.append(String.format("%s (%d)", source, hotspot.getDeathsBySource(source)));
+        }
+        sb.append(String.format(
+                "• Causes: %s\n" +
+                        "• Experience dropped: %d\n" +
+                        "• Duration: %s\n" +
+                        "• Rate: ~%d deaths/min\n" +
+                        "• Started: <t:%d:R>\n" +
+                        "• Ended: <t:%d:R>",
+                causes, mobXpValue, hotspot.getFormattedDuration(), deathsPerMinute, startTime, lastDeathTime));
+        return sb.toString();
     }
 
-    private void sendFarmingSummary(FarmingSession session) {
-        // Check visibility preferences for registered players
-        String killerName = session.getKillerName();
-        RegisteredUser reg = RegistrationStore.getInstance().getByMinecraft(killerName);
-        if (reg != null && !reg.isShowDeaths()) {
-            LOGGER.debug("Suppressed farming summary for " + killerName + " (visibility setting)");
-            return;
+    private static String formatFarmingSummary(FarmingDetector.Session session) {
+        long startTime = session.getStartTime();
+        long lastKillTime = session.getLastKillTime();
+        long killsPerMinute = (session.getKillCount() * 60L) / Math.max(1, (lastKillTime - startTime));
+        int mobXpValue = 0;
+        for (int i = 0; i < session.getTypeCount(); i++) {
+            mobXpValue += getMobXpValue(session.getType(i)) * session.getTypeKills(i);
         }
-        
-        String message = String.format(
-                "<:brasovpog:1411341162111045632> **Farming Complete**\n%s",
-                session.getFormattedSummary()
-        );
 
-        try {
-            discordBot.sendToDiscord(message, true);
-            LOGGER.info("Farming summary sent: {} completed farming {} ({} total kills)",
-                    session.getKillerName(), session.getEntityName(), session.getKillCount());
-        } catch (Exception e) {
-            LOGGER.error("Failed to send farming summary: " + e.getMessage());
+        StringBuilder sb = new StringBuilder(String.format(
+                "**%s** farmed **%s**\n" +
+                        "• Total Kills: %d\n",
+                session.getKillerName(), session.getEntityName(), session.getKillCount()));
+        if (session.isMixed()) {
+            for (int i = 0; i < session.getTypeCount(); i++) {
+                sb.append(String.format("  • %s: %d\n", session.getTypeName(i), session.getTypeKills(i)));
+            }
         }
+        sb.append(String.format(
+                "• Experience dropped: %d\n" +
+                        "• Duration: %s\n" +
+                        "• Rate: ~%d kills/min\n" +
+                        "• Started: <t:%d:R>\n" +
+                        "• Ended: <t:%d:R>",
+                mobXpValue, session.getFormattedDuration(), killsPerMinute, startTime, lastKillTime));
+        return sb.toString();
     }
 
     private static int getMobXpValue(EntityType<?> entityType) {
@@ -0,0 +1,106 @@
+package com.coop.bot;
+
+import com.coop.bot.objects.DeathRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Dedicated thread that drains the DeathEventQueue, so recording, farming detection and
+ * message formatting stay off the server tick thread. When the queue is empty the worker parks
+ * until the next tick, and the server thread only unparks it if it is actually parked, so a busy
+ * worker costs producers nothing and an idle one wakes about once a second. The tick task runs on
+ * the same thread, so state it shares with the handler needs no locking.
+ */
+public class DeathWorker {
+    private static final Logger LOGGER = LoggerFactory.getLogger("CoopBot-DeathWorker");
+    private static final long DROP_LOG_INTERVAL = 1000;
+    private static final long TICK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final DeathEventQueue queue;
+    private final Consumer<DeathRecord> handler;
+    private final Runnable tick;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private long lastLoggedDrops;
+
+    public DeathWorker(int queueCapacity, Consumer<DeathRecord> handler, Runnable tick) {
+        this.queue = new DeathEventQueue(queueCapacity);
+        this.handler = handler;
+        this.tick = tick;
+        this.thread = new Thread(this::run, "CoopBot-DeathWorker");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+        LOGGER.info("Death worker started (queue capacity {})", queue.getCapacity());
+    }
+
+    /**
+     * Server thread. Hands the death to the worker, or drops it if the queue is full.
+     */
+    public void submit(DeathRecord death) {
+        if (queue.offer(death)) {
+            if (parked) LockSupport.unpark(thread);
+        } else {
+            long dropped = queue.getDroppedMobDeaths() + queue.getDroppedPlayerDeaths();
+            // Only the server thread submits, so this doesn't need to be atomic
+            if (dropped - lastLoggedDrops >= DROP_LOG_INTERVAL || death.isPlayerDeath()) {
+                lastLoggedDrops = dropped;
+                LOGGER.warn("Death queue full, dropped {} mob and {} player deaths so far",
+                        queue.getDroppedMobDeaths(), queue.getDroppedPlayerDeaths());
+            }
+        }
+    }
+
+    private void run() {
+        long lastTick = System.nanoTime();
+        while (running || queue.size() > 0) {
+            long now = System.nanoTime();
+            if (now - lastTick >= TICK_INTERVAL_NANOS) {
+                lastTick = now;
+                try {
+                    tick.run();
+                } catch (Exception e) {
+                    LOGGER.error("Death worker tick failed: " + e.getMessage(), e);
+                }
+            }
+
+            DeathRecord death = queue.poll();
+            if (death == null) {
+                parked = true;
+                // Re-check after publishing the flag, a death offered before it was set gets no unpark
+                if (queue.size() == 0 && running) {
+                    LockSupport.parkNanos(lastTick + TICK_INTERVAL_NANOS - System.nanoTime());
+                }
+                parked = false;
+                continue;
+            }
+
+            try {
+                handler.accept(death);
+            } catch (Exception e) {
+                LOGGER.error("Failed to process death: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public DeathEventQueue getQueue() {
+        return queue;
+    }
+}
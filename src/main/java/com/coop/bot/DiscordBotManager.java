@@ -1,14 +1,19 @@
 package com.coop.bot;
 
 import com.coop.bot.config.ModConfig;
+import com.coop.bot.metrics.MetricRegistry;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.channel.GenericChannelEvent;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.entities.MessageReference;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
@@ -19,6 +24,7 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.HoverEvent;
 import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
 import net.minecraft.ChatFormatting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,25 +32,45 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
+import com.coop.bot.objects.PlayerProfile;
 import com.coop.bot.objects.RegisteredUser;
 import net.minecraft.server.level.ServerPlayer;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class DiscordBotManager extends ListenerAdapter {
     private static final Logger LOGGER = LoggerFactory.getLogger("Chicken-Bot");
-    private JDA jda;
+    private volatile JDA jda;
+    // Set once startBot has been called with a token. Messages sent before the bot is ready wait in
+    // the outbound lanes until onReady resolves the channels
+    private volatile boolean botStarted;
+    private boolean shuttingDown;
+    private long startupBeganNanos;
     private final ModConfig config;
     private MinecraftServer minecraftServer;
     private String generalChannelId;
     private String mobChannelId;
     private static long serverStartTime;
-    // Executor for background HTTP/webhook work so we don't block the server thread
-    // Set a reasonable limit on threads to avoid resource exhaustion
-    private final ExecutorService webhookExecutor = Executors.newFixedThreadPool(4);
+    // Long-lived webhooks for impersonated chat, sends are async so the server thread is never blocked
+    private final WebhookPool chatWebhooks;
+    // Keeps sends in order per channel / per player while running different destinations in parallel
+    private final OrderedDispatcher dispatcher = new OrderedDispatcher();
+    // Priority lanes + per-channel rate limiting for bot messages
+    private final OutboundScheduler outbound;
+    // Set once death tracking is up, /stats answers from these counters
+    private volatile DeathStatistics deathStatistics;
+    // Relay channel messages, so replies usually find what they quote without a REST call
+    private final RecentMessageCache recentMessages = new RecentMessageCache(RECENT_MESSAGE_CACHE_SIZE);
+    private static final int RECENT_MESSAGE_CACHE_SIZE = 1000;
+    private static final long REPLY_LOOKUP_TIMEOUT_MS = 2000;
+    private final LongAdder replyLookupsRest = new LongAdder();
+    private final LongAdder replyLookupsTimedOut = new LongAdder();
+    // Discord -> Minecraft, broadcast on the server thread once per tick
+    private final InboundRelay inboundRelay = new InboundRelay();
+    private static final Style REPLY_HOVER_STYLE = Style.EMPTY.withColor(ChatFormatting.GRAY);
 
     // Intialise class
     public DiscordBotManager(ModConfig config) {
@@ -52,6 +78,18 @@ public class DiscordBotManager extends ListenerAdapter {
         this.generalChannelId = config.getDiscordChannelId();
         this.mobChannelId = config.getDiscordMobChannelId();
         this.serverStartTime = System.currentTimeMillis();;
+        this.outbound = new OutboundScheduler(config.getDiscordCoalesceWindowMs(), dispatcher);
+        this.chatWebhooks = !config.getDiscordWebhookUrls().isEmpty()
+                ? new WebhookPool(config.getDiscordWebhookUrls(), config.getWebhookMaxInFlight(), config.getWebhookMaxQueued(), dispatcher)
+                : null;
+
+        MetricRegistry metrics = MetricRegistry.getInstance();
+        metrics.counter("coopbot_reply_cache_lookups_total", "Replies looked up in the recent message cache", recentMessages::getHits, "result", "hit");
+        metrics.counter("coopbot_reply_cache_lookups_total", "Replies looked up in the recent message cache", recentMessages::getMisses, "result", "miss");
+        metrics.gauge("coopbot_reply_cache_hit_ratio", "Share of replies resolved from the recent message cache", recentMessages::getHitRate);
+        metrics.gauge("coopbot_reply_cache_size", "Messages in the recent message cache", recentMessages::size);
+        metrics.counter("coopbot_reply_rest_lookups_total", "Replies that had to ask Discord for the quoted message", replyLookupsRest::sum);
+        metrics.counter("coopbot_reply_lookup_timeouts_total", "Replies relayed without their quote because Discord was too slow", replyLookupsTimedOut::sum);
     }
 
     // Setters
@@ -59,37 +97,99 @@ public class DiscordBotManager extends ListenerAdapter {
         this.minecraftServer = server;
     }
 
+    public void setDeathStatistics(DeathStatistics deathStatistics) {
+        this.deathStatistics = deathStatistics;
+    }
+
+    // Getters
+    public WebhookPool getChatWebhooks() {
+        return chatWebhooks;
+    }
+
+    public OutboundScheduler getOutbound() {
+        return outbound;
+    }
+
+    public InboundRelay getInboundRelay() {
+        return inboundRelay;
+    }
+
 
     // ---------------
     // Bot startup
     // ---------------
 
+    /**
+     * Server thread, SERVER_STARTED. Returns straight away, logging in and connecting to the gateway
+     * happen on a background thread.
+     */
     public void startBot() {
         if (config.getDiscordBotToken().isEmpty()) {
             LOGGER.error("No Discord bot token configured!");
             return;
         }
 
+        startupBeganNanos = System.nanoTime();
+        botStarted = true;
+        // The status lane drains before chat and doesn't wait for the coalesce window, so this goes out
+        // ahead of anything queued while the bot connects
+        sendToDiscord("✅ **Minecraft Server is now online!**", OutboundScheduler.Lane.STATUS);
+        outbound.getFirstSend().thenRun(() ->
+                LOGGER.info("First message relayed to Discord {} ms after startup", millisSinceStartup()));
+
+        Thread startup = new Thread(this::login, "CoopBot-Startup");
+        startup.setDaemon(true);
+        startup.start();
+        LOGGER.info("Discord bot starting in the background, messages are queued until it is ready");
+    }
+
+    private void login() {
         try {
-            jda = JDABuilder.createDefault(config.getDiscordBotToken())
+            // Blocks until Discord accepts the token, the gateway connects after this returns
+            JDA built = JDABuilder.createDefault(config.getDiscordBotToken())
                     .enableIntents(GatewayIntent.MESSAGE_CONTENT, GatewayIntent.GUILD_MESSAGES)
                     .addEventListeners(this)
                     .build();
 
-            jda.awaitReady();
-            LOGGER.info("Discord bot started successfully!");
-            sendToDiscord("✅ **Minecraft Server is now online!**", false);
+            synchronized (this) {
+                if (shuttingDown) {
+                    built.shutdownNow();
+                    return;
+                }
+                jda = built;
+            }
+            LOGGER.info("Discord login took {} ms, waiting for the gateway", millisSinceStartup());
         } catch (Exception e) {
-            LOGGER.error("Failed to start Discord bot: " + e.getMessage());
+            botStarted = false;
+            LOGGER.error("Failed to start Discord bot after " + millisSinceStartup() + " ms: " + e.getMessage());
         }
     }
 
+    private long millisSinceStartup() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startupBeganNanos);
+    }
+
     @Override
     public void onReady(ReadyEvent event) {
-        LOGGER.info("Discord bot ready! Registering slash commands...");
+        LOGGER.info("Discord bot ready {} ms after startup! Registering slash commands...", millisSinceStartup());
+        // Resolving the channels releases everything queued while the bot was connecting
+        outbound.registerChannel(generalChannelId, event.getJDA());
+        outbound.registerChannel(mobChannelId, event.getJDA());
+        JDA readyJda = event.getJDA();
+        // -1 until the first heartbeat is acknowledged
+        MetricRegistry.getInstance().gauge("coopbot_discord_gateway_ping_seconds", "Discord gateway heartbeat round trip",
+                () -> readyJda.getGatewayPing() < 0 ? Double.NaN : readyJda.getGatewayPing() / 1000.0);
         registerSlashCommands(event.getJDA());
     }
 
+    @Override
+    public void onGenericChannel(GenericChannelEvent event) {
+        // Cached channel handles only need refreshing when one of our channels changes
+        if (outbound.isTracked(event.getChannel().getId())) {
+            outbound.refreshChannels(event.getJDA());
+        }
+    }
+
     @Override
     public void onSlashCommandInteraction(SlashCommandInteractionEvent event) {
         // Could simplify this to if statement, but it seems likely to be expanded, so I will stick with it
@@ -109,6 +209,12 @@ public class DiscordBotManager extends ListenerAdapter {
             case "visibility":
                 handleVisibilityCommand(event);
                 break;
+            case "stats":
+                handleStatsCommand(event);
+                break;
+            case "metrics":
+                handleMetricsCommand(event);
+                break;
             default:
                 event.reply("Unknown command").setEphemeral(true).queue();
         }
@@ -133,7 +239,9 @@ public class DiscordBotManager extends ListenerAdapter {
                                 Commands.slash("registrations", "List all registered Minecraft usernames"),
                                 Commands.slash("register", "Register your Minecraft username").addOption(OptionType.STRING, "minecraft_username", "Your Minecraft username", true),
                                 Commands.slash("unregister", "Unregister your Minecraft username").addOption(OptionType.STRING, "minecraft_username", "Your Minecraft username", true),
-                                Commands.slash("visibility", "Control your visibility settings for Discord posting")
+                                Commands.slash("visibility", "Control your visibility settings for Discord posting"),
+                                Commands.slash("stats", "Show death and kill statistics").addOption(OptionType.STRING, "player", "Minecraft username to show stats for", false),
+                                Commands.slash("metrics", "Show bot performance metrics")
                         )
                         .queue(
                                 success -> LOGGER.info("Slash commands registered successfully!"),
@@ -157,35 +265,24 @@ public class DiscordBotManager extends ListenerAdapter {
     // Message sending
     // ---------------
 
-    public void sendToDiscord(String message, boolean mob) {
-
-        if (jda == null || generalChannelId == null) return;
+    // The lane decides both priority and channel (deaths and mobs go to the mob channel)
+    public void sendToDiscord(String message, OutboundScheduler.Lane lane) {
 
-        TextChannel channel;
-        if (mob) {
-            channel = jda.getTextChannelById(mobChannelId);
-        } else {
-            channel = jda.getTextChannelById(generalChannelId);
-        }
+        if (!botStarted || generalChannelId == null) return;
 
-        String sanitisedMessage = escapeMarkdown(message);
-        if (channel != null && channel.canTalk()) {
-            channel.sendMessage(sanitisedMessage).queue(
-                    success -> LOGGER.debug("Message sent to Discord"),
-                    error -> LOGGER.error("Failed to send to Discord: " + error.getMessage())
-            );
-        }
+        String channelId = lane.isMobChannel() ? mobChannelId : generalChannelId;
+        String sanitisedMessage = DiscordSanitizer.sanitize(message);
+        outbound.submit(channelId, lane, sanitisedMessage);
     }
-    // mob = false by default
+    // chat lane by default
     public void sendToDiscord(String message) {
-        sendToDiscord(message, false);
+        sendToDiscord(message, OutboundScheduler.Lane.CHAT);
     }
 
 
 
     @Override
     public void onMessageReceived(MessageReceivedEvent event) {
-        if (event.getAuthor().isBot()) return;
         if (generalChannelId != null && !event.getChannel().getId().equals(generalChannelId)) {
             return;
         }
@@ -193,46 +290,80 @@ public class DiscordBotManager extends ListenerAdapter {
 
         Message discordMessage = event.getMessage();
         String message = discordMessage.getContentDisplay();
+        // Includes our own relayed chat and webhook messages, those are what replies quote most
+        recentMessages.put(discordMessage.getIdLong(), displayName(discordMessage), message);
+        if (event.getAuthor().isBot()) return;
 
-        // Use the member's nickname for display in Minecraft if present; otherwise use the effective name or username
-        String author;
-        if (event.getMember() != null) {
-            String nick = event.getMember().getNickname();
-            author = (nick != null && !nick.isEmpty()) ? nick : event.getMember().getEffectiveName();
-        } else {
-            author = event.getAuthor().getName();
+        String author = displayName(discordMessage);
+
+        // Relayed in order, so a reply still waiting on Discord holds back the messages after it
+        CompletableFuture<RecentMessageCache.Entry> quote = resolveReply(discordMessage);
+        dispatcher.submit("discord-to-minecraft", () -> {
+            RecentMessageCache.Entry referenced = quote.join();
+            sendToMinecraft(author, message,
+                    referenced != null ? referenced.author() : null,
+                    referenced != null ? referenced.content() : null);
+            return null;
+        });
+    }
+
+    @Override
+    public void onMessageUpdate(MessageUpdateEvent event) {
+        recentMessages.update(event.getMessageIdLong(), event.getMessage().getContentDisplay());
+    }
+
+    @Override
+    public void onMessageDelete(MessageDeleteEvent event) {
+        recentMessages.remove(event.getMessageIdLong());
+    }
+
+    // Use the member's nickname for display in Minecraft if present; otherwise use the effective name or username
+    private static String displayName(Message message) {
+        if (message.getMember() != null) {
+            String nick = message.getMember().getNickname();
+            return (nick != null && !nick.isEmpty()) ? nick : message.getMember().getEffectiveName();
         }
+        return message.getAuthor().getName();
+    }
 
-        // Check if this message is a reply
-        String referencedMessage = null;
-        String referencedAuthor = null;
+    /**
+     * The message a reply quotes, or null if it isn't a reply. Never blocks: from the cache, from the copy
+     * Discord sometimes sends along with the reply, or else fetched in the background. A fetch that takes
+     * longer than REPLY_LOOKUP_TIMEOUT_MS gives null, so the reply is relayed without its quote.
+     */
+    private CompletableFuture<RecentMessageCache.Entry> resolveReply(Message discordMessage) {
+        MessageReference reference = discordMessage.getMessageReference();
+        if (reference == null) {
+            return CompletableFuture.completedFuture(null);
+        }
 
-        if (discordMessage.getMessageReference() != null) {
-            try {
-                Message referencedMsg = discordMessage.getMessageReference().resolve().complete();
-                if (referencedMsg != null) {
-                    referencedMessage = referencedMsg.getContentDisplay();
-                    if (referencedMsg.getMember() != null) {
-                        String nick = referencedMsg.getMember().getNickname();
-                        referencedAuthor = (nick != null && !nick.isEmpty()) ? nick : referencedMsg.getMember().getEffectiveName();
-                    } else {
-                        referencedAuthor = referencedMsg.getAuthor().getName();
-                    }
-                }
-            } catch (Exception e) {
-                LOGGER.warn("Failed to resolve referenced message: " + e.getMessage());
-            }
+        RecentMessageCache.Entry cached = recentMessages.get(reference.getMessageIdLong());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        Message included = discordMessage.getReferencedMessage();
+        if (included != null) {
+            return CompletableFuture.completedFuture(
+                    recentMessages.put(included.getIdLong(), displayName(included), included.getContentDisplay()));
         }
 
-        sendToMinecraft(author, message, referencedAuthor, referencedMessage);
+        replyLookupsRest.increment();
+        return reference.resolve().submit()
+                .thenApply(referenced -> recentMessages.put(referenced.getIdLong(), displayName(referenced), referenced.getContentDisplay()))
+                .orTimeout(REPLY_LOOKUP_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    if (e instanceof TimeoutException || e.getCause() instanceof TimeoutException) {
+                        replyLookupsTimedOut.increment();
+                        LOGGER.warn("Timed out resolving referenced message, relaying without it");
+                    } else {
+                        LOGGER.warn("Failed to resolve referenced message: " + e.getMessage());
+                    }
+                    return null;
+                });
     }
 
+    // Any thread, the components are only broadcast on the server thread
     private void sendToMinecraft(String author, String message, String referencedAuthor, String referencedMessage) {
-        if (minecraftServer == null) {
-            LOGGER.error("Minecraft server not set!");
-            return;
-        }
-
         String formatted;
 
         if (referencedMessage != null && referencedAuthor != null) {
@@ -243,29 +374,25 @@ public class DiscordBotManager extends ListenerAdapter {
             }
 
             // Create the base text
-            formatted = String.format("§9[Discord] §7%s §8(↩ %s)§7: §f%s",
-                    author, referencedAuthor, message);
+            formatted = config.getDiscordReplyTemplate().render(author, referencedAuthor, message);
 
 
             // Create hover text showing the full referenced message
             // (hover text will only appear if the targeted message is moused over (the entire message))
             Component hoverText = Component.literal("Replying to " + referencedAuthor + ": " + truncatedRefMessage)
-                    .withStyle(ChatFormatting.GRAY);
+                    .withStyle(REPLY_HOVER_STYLE);
 
             HoverEvent hoverEvent = new HoverEvent.ShowText(hoverText);
 
             // Apply the hover event to the text
             MutableComponent mainText = Component.literal(formatted)
-                .withStyle(style -> style.withHoverEvent(hoverEvent));
+                .withStyle(Style.EMPTY.withHoverEvent(hoverEvent));
 
-            minecraftServer.getPlayerList().broadcastSystemMessage(mainText, false);
+            inboundRelay.enqueue(mainText);
 
         } else {
-            formatted = String.format("§9[Discord] §7%s: §f%s", author, message);
-            minecraftServer.getPlayerList().broadcastSystemMessage(
-                    Component.literal(formatted),
-                    false
-            );
+            formatted = config.getDiscordToMinecraftTemplate().render(author, message);
+            inboundRelay.enqueue(Component.literal(formatted));
         }
 
         LOGGER.info("Discord -> Minecraft: " + author + ": " + message +
@@ -296,6 +423,78 @@ public class DiscordBotManager extends ListenerAdapter {
         LOGGER.info("Completed processing info command.");
     }
 
+    private void handleStatsCommand(SlashCommandInteractionEvent event) {
+        DeathStatistics stats = deathStatistics;
+        if (stats == null) {
+            event.reply("❌ **Stats not available yet**").setEphemeral(true).queue();
+            return;
+        }
+
+        // Everything comes from running counters, cheap enough to answer without deferring
+        String player = event.getOption("player") != null ? event.getOption("player").getAsString() : null;
+        event.reply(player != null ? formatPlayerStats(stats, player) : formatStats(stats)).queue();
+    }
+
+    private void handleMetricsCommand(SlashCommandInteractionEvent event) {
+        // Leave room for the code block and the "more" line
+        int budget = 2000 - 64;
+        StringBuilder sb = new StringBuilder("```\n");
+        List<String> lines = MetricRegistry.getInstance().summaryLines();
+        int shown = 0;
+        for (String line : lines) {
+            if (sb.length() + line.length() + 1 > budget) break;
+            sb.append(line).append('\n');
+            shown++;
+        }
+        sb.append("```");
+        if (shown < lines.size()) {
+            sb.append(String.format("-# %d more, see the metrics endpoint", lines.size() - shown));
+        }
+        event.reply(sb.toString()).setEphemeral(true).queue();
+    }
+
+    private String formatStats(DeathStatistics stats) {
+        long now = System.currentTimeMillis() / 1000;
+        StringBuilder sb = new StringBuilder();
+        sb.append("## Death Stats\n");
+        sb.append(String.format("-# Since <t:%d:R>\n\n", stats.getStartedAt()));
+
+        sb.append("### \uD83D\uDC80 Deaths\n");
+        sb.append(String.format("• Total: `%d` (`%d` players)\n", stats.getTotalDeaths(), stats.getTotalPlayerDeaths()));
+        sb.append(String.format("• Last hour: `%d` (`%d` players)\n", stats.getDeathsLastHour(now), stats.getPlayerDeathsLastHour(now)));
+        sb.append(String.format("• Last 24h: `%d` (`%d` players)\n", stats.getDeathsLastDay(now), stats.getPlayerDeathsLastDay(now)));
+        stats.getDeathsByDimension().forEach((dimension, count) ->
+                sb.append(String.format("• In %s: `%d`\n", DiscordSanitizer.sanitize(dimension), count)));
+
+        appendLeaderboard(sb, "### \uD83E\uDEA6 Most Deaths\n", stats.getTopDeaths(5));
+        appendLeaderboard(sb, "### \u2694\uFE0F Most Kills\n", stats.getTopKillers(5));
+        return sb.toString();
+    }
+
+    private String formatPlayerStats(DeathStatistics stats, String player) {
+        DeathStatistics.PlayerStats playerStats = stats.getPlayerStats(player, 3);
+        if (playerStats == null) {
+            return "No deaths or kills recorded for **" + DiscordSanitizer.sanitize(player) + "** since the server started.";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("## Stats for %s\n", DiscordSanitizer.sanitize(playerStats.name())));
+        sb.append(String.format("• Deaths: `%d`\n", playerStats.deaths()));
+        sb.append(String.format("• Kills: `%d`\n", playerStats.kills()));
+        playerStats.topVictims().forEach(victim ->
+                sb.append(String.format("  • %s: `%d`\n", DiscordSanitizer.sanitize(victim.name()), victim.count())));
+        return sb.toString();
+    }
+
+    private static void appendLeaderboard(StringBuilder sb, String title, List<DeathStatistics.Entry> entries) {
+        if (entries.isEmpty()) return;
+        sb.append("\n").append(title);
+        for (int i = 0; i < entries.size(); i++) {
+            DeathStatistics.Entry entry = entries.get(i);
+            sb.append(String.format("%d. %s `%d`\n", i + 1, DiscordSanitizer.sanitize(entry.name()), entry.count()));
+        }
+    }
+
     private void handleRegisterCommand(SlashCommandInteractionEvent event) {
         String mcUsername = event.getOption("minecraft_username").getAsString();
         String discordId = event.getUser().getId();
@@ -375,11 +574,13 @@ public class DiscordBotManager extends ListenerAdapter {
         String discordId = event.getUser().getId();
         String buttonId = event.getComponentId();
 
-        RegisteredUser reg = RegistrationStore.getInstance().getByDiscordId(discordId);
-        if (reg == null) {
+        RegisteredUser current = RegistrationStore.getInstance().getByDiscordId(discordId);
+        if (current == null) {
             event.reply("❌ Registration not found.").setEphemeral(true).queue();
             return;
         }
+        // Edit a copy, the stored one may be being read on the server thread
+        RegisteredUser reg = new RegisteredUser(current);
 
         // Toggle the appropriate setting
         boolean newValue = false;
@@ -446,40 +647,35 @@ public class DiscordBotManager extends ListenerAdapter {
     }
 
     public void sendMinecraftChatToDiscord(ServerPlayer player, String messageBody) {
-        if (jda == null) return;
+        if (!botStarted) return;
 
-        String playerName = player.getName().getString();
-        RegisteredUser reg = RegistrationStore.getInstance().getByMinecraft(playerName);
+        PlayerProfile profile = PlayerProfiles.getInstance().get(player.getUUID());
+        if (profile == null) {
+            // Not seen joining (e.g. a reload), resolve now
+            profile = PlayerProfiles.getInstance().join(player);
+        }
+        String playerName = profile.getName();
 
         // Check visibility preferences for registered players
-        if (reg != null && !reg.isShowChat()) {
+        if (!profile.isShowChat()) {
             LOGGER.debug("Suppressed chat message for " + playerName + " (visibility setting)");
             return;
         }
 
-        // If registered and webhook configured, use webhook to impersonate but do it off-thread
-        if (reg != null && config.getDiscordWebhookUrl() != null && !config.getDiscordWebhookUrl().isEmpty()) {
-            // Submit the webhook send to the background executor so the server thread isn't blocked
-            webhookExecutor.submit(() -> {
-                try {
-                    DiscordWebhook webhook = new DiscordWebhook(config.getDiscordWebhookUrl());
-                    webhook.sendMessage(messageBody, reg.getDiscordName(), reg.getAvatarUrl());
-                } catch (Exception e) {
-                    LOGGER.error("Failed to send Minecraft chat via webhook", e);
-                }
-            });
-            // Return immediately to avoid blocking
+        // If registered and webhook configured, use webhook to impersonate
+        if (profile.isRegistered() && chatWebhooks != null && chatWebhooks.size() > 0) {
+            try {
+                // Async, returns immediately. Keyed by player so their messages stay in order
+                chatWebhooks.send(profile.getOrderingKey(), messageBody, profile.getDisplayName(), profile.getAvatarUrl());
+            } catch (Exception e) {
+                LOGGER.error("Failed to send Minecraft chat via webhook", e);
+            }
             return;
         }
 
-        // Otherwise, if registered but no webhook, fall back to sending as bot but use registered name
+        // Otherwise send as bot, under the registered name if there is one
         try {
-            String formatted = config.getChatMessageFormat();
-            if (reg != null) {
-                formatted = formatted.replace("{player}", reg.getDiscordName()).replace("{message}", messageBody);
-            } else {
-                formatted = formatted.replace("{player}", playerName).replace("{message}", messageBody);
-            }
+            String formatted = config.getChatTemplate().render(profile.getDisplayName(), messageBody);
 
             sendToDiscord(formatted);
         } catch (Exception e) {
@@ -547,42 +743,6 @@ public class DiscordBotManager extends ListenerAdapter {
         return info.toString();
     }
 
-    public static String escapeMarkdown(String text) {
-        if (text == null) return "";
-
-        // Don't escape Discord timestamp format: <t:timestamp:R>
-        // Don't escape custom emoji format: <:name:id>
-        // Don't escape animated emoji format: <a:name:id>
-
-        // Use regex to find Discord special tags and protect them
-        StringBuilder result = new StringBuilder();
-        Pattern pattern = Pattern.compile("(<[tT]:\\d+:[A-Za-z]>|<a?:\\w+:\\d+>)");
-        Matcher matcher = pattern.matcher(text);
-
-        int lastIndex = 0;
-        while (matcher.find()) {
-            // Escape text before the Discord tag
-            result.append(escapePlainMarkdown(text.substring(lastIndex, matcher.start())));
-            // Add the Discord tag without escaping
-            result.append(matcher.group());
-            lastIndex = matcher.end();
-        }
-
-        // Escape any remaining text
-        result.append(escapePlainMarkdown(text.substring(lastIndex)));
-
-        return result.toString();
-    }
-
-    private static String escapePlainMarkdown(String text) {
-        if (text == null) return "";
-        return text
-                .replace("_", "\\_")
-                .replace("~", "\\~")
-                .replace(">", "\\>")
-                .replace("|", "\\|");
-    }
-
     private static String formatUptime(long millis) {
         long seconds = millis / 1000;
         long days = seconds / 86400;
@@ -611,14 +771,20 @@ public class DiscordBotManager extends ListenerAdapter {
 
     public void shutdown() {
         LOGGER.info("Shutting down Discord bot...");
-        if (jda != null) {
-            jda.shutdown();
-            jda = null;
+        // Flush anything still queued before JDA goes away
+        outbound.shutdown();
+        dispatcher.shutdown();
+        synchronized (this) {
+            // A login still in progress shuts its JDA down when it finishes
+            shuttingDown = true;
+            botStarted = false;
+            if (jda != null) {
+                jda.shutdown();
+                jda = null;
+            }
         }
-        try {
-            webhookExecutor.shutdownNow();
-        } catch (Exception e) {
-            LOGGER.warn("Error shutting down webhook executor: " + e.getMessage());
+        if (chatWebhooks != null) {
+            LOGGER.info("Chat webhooks: " + chatWebhooks.getStatsSummary());
         }
     }
 }
\ No newline at end of file
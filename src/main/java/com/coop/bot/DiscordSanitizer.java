@@ -0,0 +1,150 @@
+package com.coop.bot;
+
+/**
+ * Makes text from Minecraft safe to post as a bot message, in a single pass over the string.
+ * <ul>
+ *   <li>Escapes the markdown characters _ ~ > |</li>
+ *   <li>Leaves Discord timestamps (&lt;t:123:R&gt;) and custom emoji (&lt;:name:id&gt;, &lt;a:name:id&gt;) untouched</li>
+ *   <li>Defuses @everyone, @here and role mentions with a zero-width space</li>
+ *   <li>Truncates to Discord's 2000 character limit without splitting a surrogate pair or an escape</li>
+ * </ul>
+ * Returns the input String itself when nothing needs changing, which is the common case.
+ */
+public final class DiscordSanitizer {
+    public static final int MAX_LENGTH = MessageCoalescer.DISCORD_MESSAGE_LIMIT;
+    private static final char ZERO_WIDTH_SPACE = '\u200B';
+
+    private DiscordSanitizer() {}
+
+    public static String sanitize(String text) {
+        return sanitize(text, MAX_LENGTH);
+    }
+
+    public static String sanitize(String text, int maxLength) {
+        if (text == null) return "";
+
+        final int length = text.length();
+        // Only created once something has to change, until then output == text[0, i)
+        StringBuilder out = null;
+        int i = 0;
+        while (i < length) {
+            if (out != null && out.length() > maxLength) break;
+            if (out == null && i > maxLength) break;
+
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': {
+                    int tagEnd = tagEnd(text, i);
+                    if (tagEnd != -1) {
+                        if (out != null) out.append(text, i, tagEnd);
+                        i = tagEnd;
+                        continue;
+                    }
+                    // <@&id> role mention
+                    if (i + 2 < length && text.charAt(i + 1) == '@' && text.charAt(i + 2) == '&') {
+                        out = start(out, text, i);
+                        out.append("<@").append(ZERO_WIDTH_SPACE).append('&');
+                        i += 3;
+                        continue;
+                    }
+                    break;
+                }
+                case '@': {
+                    if (text.startsWith("everyone", i + 1) || text.startsWith("here", i + 1)) {
+                        out = start(out, text, i);
+                        out.append('@').append(ZERO_WIDTH_SPACE);
+                        i++;
+                        continue;
+                    }
+                    break;
+                }
+                case '_':
+                case '~':
+                case '>':
+                case '|': {
+                    out = start(out, text, i);
+                    out.append('\\').append(c);
+                    i++;
+                    continue;
+                }
+                default:
+                    break;
+            }
+
+            if (out != null) out.append(c);
+            i++;
+        }
+
+        if (out == null) {
+            return length <= maxLength ? text : truncate(text, maxLength);
+        }
+        return out.length() <= maxLength ? out.toString() : truncate(out, maxLength);
+    }
+
+    private static StringBuilder start(StringBuilder out, String text, int upTo) {
+        if (out != null) return out;
+        StringBuilder builder = new StringBuilder(text.length() + 16);
+        builder.append(text, 0, upTo);
+        return builder;
+    }
+
+    private static String truncate(CharSequence text, int maxLength) {
+        int end = maxLength;
+        if (Character.isHighSurrogate(text.charAt(end - 1)) && Character.isLowSurrogate(text.charAt(end))) {
+            end--;
+        }
+        // Don't leave a dangling backslash from an escape that got cut in half
+        if (end > 0 && text.charAt(end - 1) == '\\' && isEscaped(text.charAt(end))) {
+            end--;
+        }
+        return text.subSequence(0, end).toString();
+    }
+
+    private static boolean isEscaped(char c) {
+        return c == '_' || c == '~' || c == '>' || c == '|';
+    }
+
+    // End of a <t:123:R> / <t:123> timestamp or <:name:id> / <a:name:id> emoji starting at start, or -1
+    private static int tagEnd(String text, int start) {
+        int length = text.length();
+        int i = start + 1;
+        if (i >= length) return -1;
+
+        char c = text.charAt(i);
+        if (c == 't' || c == 'T') {
+            i++;
+            if (i >= length || text.charAt(i) != ':') return -1;
+            int digits = ++i;
+            while (i < length && isDigit(text.charAt(i))) i++;
+            if (i == digits || i >= length) return -1;
+            if (text.charAt(i) == ':') {
+                i++;
+                if (i >= length || !isLetter(text.charAt(i))) return -1;
+                i++;
+            }
+            return i < length && text.charAt(i) == '>' ? i + 1 : -1;
+        }
+
+        if (c == 'a') i++;
+        if (i >= length || text.charAt(i) != ':') return -1;
+        int name = ++i;
+        while (i < length && isWordChar(text.charAt(i))) i++;
+        if (i == name || i >= length || text.charAt(i) != ':') return -1;
+        int id = ++i;
+        while (i < length && isDigit(text.charAt(i))) i++;
+        if (i == id) return -1;
+        return i < length && text.charAt(i) == '>' ? i + 1 : -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWordChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '_';
+    }
+}
@@ -1,38 +1,143 @@
 package com.coop.bot;
 
+import com.coop.bot.metrics.Histogram;
+import com.coop.bot.metrics.MetricRegistry;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Async Discord webhook sender. All webhooks share one HTTP/2 client, so connections (and TLS
+ * sessions) are reused between messages.
+ * <p>
+ * At most maxInFlight requests are outstanding at once, further sends wait in a bounded queue.
+ * When that queue is full the oldest waiting message is dropped, its future completes with false.
+ * <p>
+ * Rate limits are tracked per webhook from Discord's X-RateLimit-* headers. Once the bucket is
+ * empty the next send is delayed until it resets, rather than running into a 429. A 429 (honouring
+ * Retry-After) or 5xx is retried with jittered backoff. Waiting is done on a scheduler, never by
+ * blocking a thread, so other sends carry on.
+ * <p>
+ * A 401 or 404 means the webhook was deleted or its token is wrong, the webhook is then marked dead.
+ */
 public class DiscordWebhook {
-    private final String webhookUrl;
-    private final HttpClient httpClient;
     private static final Gson GSON = new Gson();
     private static final Logger LOGGER = LoggerFactory.getLogger("Chicken-Bot");
+    // Per HTTP attempt, shared by every webhook
+    private static final Histogram SEND_TIME = MetricRegistry.getInstance()
+            .histogram("coopbot_discord_send_seconds", "Time for Discord to accept a bot message", "via", "webhook");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(15);
+    private static final int DEFAULT_MAX_IN_FLIGHT = 4;
+    private static final int DEFAULT_MAX_QUEUED = 100;
+    private static final int MAX_RETRIES = 3;
+    private static final long BACKOFF_BASE_MS = 500;
+    private static final long MAX_JITTER_MS = 250;
+    private static final int UNKNOWN = -1;
+    // Assumed budget before Discord has told us the real one
+    private static final int DEFAULT_BUDGET = 5;
+
+    // Shared by every webhook for the lifetime of the server, response handling runs on virtual threads
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    // Delayed sends and retries, tasks only re-dispatch so one thread is plenty
+    private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "CoopBot-Webhook-Retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final URI webhookUri;
+    private final int maxInFlight;
+    private final int maxQueued;
+
+    private static final class Pending {
+        final HttpRequest request;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        int attempts;
+
+        Pending(HttpRequest request) {
+            this.request = request;
+        }
+    }
+
+    // Guarded by this
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    private int inFlight;
+    private long sent;
+    private long failed;
+    private long dropped;
+    private long lastLatencyMs;
+    private long maxLatencyMs;
+    private double avgLatencyMs; // exponentially weighted
+    private long retries;
+    private long rateLimited;
+
+    // Rate limit bucket, as last reported by Discord. remaining is never decremented locally, sends
+    // Discord hasn't answered yet (onWire) are subtracted from it instead
+    private String bucket;
+    private int remaining = UNKNOWN;
+    private long resetAtNanos;
+    private int onWire;
+    private volatile boolean dead;
 
     public DiscordWebhook(String webhookUrl) {
-        this.webhookUrl = webhookUrl;
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this(webhookUrl, DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_QUEUED);
     }
 
+    public DiscordWebhook(String webhookUrl, int maxInFlight, int maxQueued) {
+        this.webhookUri = URI.create(webhookUrl);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxQueued = Math.max(0, maxQueued);
+    }
+
+    /**
+     * Blocking send, only for places that have to wait (e.g. the shutdown message).
+     */
     public void sendMessage(String content) throws Exception {
+        sendMessage(content, null, null);
+    }
+
+    /**
+     * Blocking send using the webhook, optionally setting username and avatar.
+     */
+    public void sendMessage(String content, String username, String avatarUrl) throws Exception {
+        if (!sendAsync(content, username, avatarUrl).get(REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Discord webhook did not accept the message");
+        }
+    }
+
+    /**
+     * Send message using the webhook, optionally setting username and avatar. Never blocks.
+     * The future completes with true once Discord accepted the message, false if it failed or was dropped.
+     */
+    public CompletableFuture<Boolean> sendAsync(String content, String username, String avatarUrl) {
         // Discord requires a non-empty "content" field
         if (content == null || content.trim().isEmpty()) {
-            throw new IllegalArgumentException("Message content cannot be empty. Discord will reject empty messages[citation:2][citation:6][citation:7].");
+            throw new IllegalArgumentException("Message content cannot be empty.");
         }
-        // Create JSON object
+
         JsonObject json = new JsonObject();
         json.addProperty("content", content);
+        if (username != null && !username.isEmpty()) json.addProperty("username", username);
+        if (avatarUrl != null && !avatarUrl.isEmpty()) json.addProperty("avatar_url", avatarUrl);
 
-        // Convert to JSON string
         String jsonPayload = GSON.toJson(json);
         // Avoid logging full payloads which may contain sensitive user data.
         // If debug is enabled, log a redacted payload that omits content and avatar_url.
@@ -44,55 +149,204 @@ public class DiscordWebhook {
             LOGGER.debug("Sending JSON to Discord webhook: {}", redacted.toString());
         }
 
-        // Build and send the HTTP POST request
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(webhookUrl))
+                .uri(webhookUri)
+                .timeout(REQUEST_TIMEOUT)
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Pending pending = new Pending(request);
+        Pending droppedPending = null;
+        boolean dispatchNow = false;
 
-        // Check the response status
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            LOGGER.error("Failed to send message to Discord. Status: " + response.statusCode());
-            LOGGER.error("Response: " + response.body());
+        synchronized (this) {
+            if (inFlight < maxInFlight) {
+                inFlight++;
+                dispatchNow = true;
+            } else {
+                if (maxQueued > 0 && queue.size() >= maxQueued) {
+                    droppedPending = queue.pollFirst();
+                    dropped++;
+                }
+                if (maxQueued > 0) {
+                    queue.addLast(pending);
+                } else {
+                    droppedPending = pending;
+                    dropped++;
+                }
+            }
+        }
+
+        if (droppedPending != null) {
+            LOGGER.warn("Discord webhook backlog full, dropped a message");
+            droppedPending.result.complete(false);
+        }
+        if (dispatchNow) {
+            dispatch(pending);
         }
+        return pending.result;
     }
 
-    /**
-     * Send message using the webhook, optionally setting username and avatar.
-     */
-    public void sendMessage(String content, String username, String avatarUrl) throws Exception {
-        if (content == null || content.trim().isEmpty()) {
-            throw new IllegalArgumentException("Message content cannot be empty.");
+    private void dispatch(Pending pending) {
+        long delayNanos = 0;
+        synchronized (this) {
+            long untilReset = resetAtNanos - System.nanoTime();
+            if (remaining != UNKNOWN && remaining - onWire <= 0 && untilReset > 0) {
+                // Bucket is empty, wait for it to reset instead of collecting a 429
+                delayNanos = untilReset;
+            } else {
+                onWire++;
+            }
+        }
+        if (delayNanos > 0) {
+            RETRY_SCHEDULER.schedule(() -> dispatch(pending), delayNanos, TimeUnit.NANOSECONDS);
+            return;
         }
 
-        JsonObject json = new JsonObject();
-        json.addProperty("content", content);
-        if (username != null && !username.isEmpty()) json.addProperty("username", username);
-        if (avatarUrl != null && !avatarUrl.isEmpty()) json.addProperty("avatar_url", avatarUrl);
+        pending.attempts++;
+        long start = System.nanoTime();
+        HTTP_CLIENT.sendAsync(pending.request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> handleResponse(pending, start, response, error));
+    }
 
-        String jsonPayload = GSON.toJson(json);
-        if (LOGGER.isDebugEnabled()) {
-            JsonObject redacted = new JsonObject();
-            redacted.addProperty("content", "[redacted]");
-            if (json.has("username")) redacted.addProperty("username", json.get("username").getAsString());
-            if (json.has("avatar_url")) redacted.addProperty("avatar_url", "[redacted]");
-            LOGGER.debug("Sending JSON to Discord webhook: {}", redacted.toString());
+    private void handleResponse(Pending pending, long start, HttpResponse<String> response, Throwable error) {
+        long latencyNanos = System.nanoTime() - start;
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        SEND_TIME.observeNanos(latencyNanos);
+        synchronized (this) {
+            onWire--;
+        }
+        if (response != null) {
+            updateRateLimit(response);
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(webhookUrl))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(jsonPayload))
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response != null ? response.statusCode() : 0;
+        boolean retryable = error != null || status == 429 || status >= 500;
+        if (retryable && pending.attempts <= MAX_RETRIES) {
+            long delayMs;
+            if (status == 429) {
+                delayMs = retryAfterMs(response);
+                synchronized (this) {
+                    rateLimited++;
+                    retries++;
+                    remaining = 0;
+                    resetAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+                }
+                LOGGER.warn("Discord webhook rate limited (bucket {}), retrying in {}ms", bucket, delayMs);
+            } else {
+                // Exponential backoff for 5xx and connection errors
+                delayMs = BACKOFF_BASE_MS << (pending.attempts - 1);
+                synchronized (this) {
+                    retries++;
+                }
+                LOGGER.warn("Discord webhook send failed ({}), retrying in {}ms",
+                        error != null ? error.getMessage() : "status " + status, delayMs);
+            }
+            // Jitter so retries from several senders don't line up
+            delayMs += ThreadLocalRandom.current().nextLong(MAX_JITTER_MS + 1);
+            RETRY_SCHEDULER.schedule(() -> dispatch(pending), delayMs, TimeUnit.MILLISECONDS);
+            return;
+        }
 
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            LOGGER.error("Failed to send message to Discord webhook. Status: " + response.statusCode());
+        boolean ok = error == null && status >= 200 && status < 300;
+        if (status == 401 || status == 404) {
+            dead = true;
+            LOGGER.error("Discord webhook returned " + status + ", it was deleted or its URL is wrong. No longer using it.");
+        } else if (error != null) {
+            LOGGER.error("Failed to send message to Discord webhook: " + error.getMessage());
+        } else if (!ok) {
+            LOGGER.error("Failed to send message to Discord webhook. Status: " + status);
             LOGGER.error("Response: " + response.body());
         }
+
+        Pending next;
+        synchronized (this) {
+            if (ok) sent++; else failed++;
+            lastLatencyMs = latencyMs;
+            maxLatencyMs = Math.max(maxLatencyMs, latencyMs);
+            avgLatencyMs = avgLatencyMs == 0 ? latencyMs : avgLatencyMs * 0.9 + latencyMs * 0.1;
+
+            // Hand our in-flight slot straight to the next waiting message
+            next = queue.pollFirst();
+            if (next == null) inFlight--;
+        }
+
+        pending.result.complete(ok);
+        if (next != null) {
+            dispatch(next);
+        }
+    }
+
+    // Reads Discord's X-RateLimit-* headers into this webhook's bucket state
+    private void updateRateLimit(HttpResponse<String> response) {
+        Optional<String> remainingHeader = response.headers().firstValue("X-RateLimit-Remaining");
+        Optional<String> resetAfterHeader = response.headers().firstValue("X-RateLimit-Reset-After");
+        Optional<String> bucketHeader = response.headers().firstValue("X-RateLimit-Bucket");
+        if (remainingHeader.isEmpty() && resetAfterHeader.isEmpty()) return;
+
+        synchronized (this) {
+            bucketHeader.ifPresent(value -> bucket = value);
+            try {
+                remainingHeader.ifPresent(value -> remaining = Integer.parseInt(value.trim()));
+                resetAfterHeader.ifPresent(value ->
+                        resetAtNanos = System.nanoTime() + secondsToNanos(Double.parseDouble(value.trim())));
+            } catch (NumberFormatException e) {
+                LOGGER.debug("Ignoring malformed rate limit header: " + e.getMessage());
+            }
+        }
+    }
+
+    private static long retryAfterMs(HttpResponse<String> response) {
+        // Retry-After is in seconds (may be fractional), fall back to the bucket reset
+        Optional<String> header = response.headers().firstValue("Retry-After")
+                .or(() -> response.headers().firstValue("X-RateLimit-Reset-After"));
+        if (header.isPresent()) {
+            try {
+                return Math.max(0, TimeUnit.NANOSECONDS.toMillis(secondsToNanos(Double.parseDouble(header.get().trim()))));
+            } catch (NumberFormatException ignored) {
+                // Fall through to the default
+            }
+        }
+        return 1000;
+    }
+
+    private static long secondsToNanos(double seconds) {
+        return (long) (seconds * 1_000_000_000L);
+    }
+
+    /**
+     * How many more messages this webhook could take right now without waiting, minus its backlog.
+     * Used by WebhookPool to pick the least loaded webhook.
+     */
+    public synchronized int getFreeBudget() {
+        boolean exhausted = remaining == 0 && resetAtNanos - System.nanoTime() > 0;
+        int budget = exhausted ? 0 : (remaining == UNKNOWN ? DEFAULT_BUDGET : remaining);
+        // Sends on the wire come out of the bucket, the rest of inFlight (waiting for a reset or a retry)
+        // and the queue still need budget of their own. Nothing is counted twice
+        return Math.max(0, budget - onWire) - (inFlight - onWire) - queue.size();
+    }
+
+    public boolean isDead() {
+        return dead;
+    }
+
+    // Stats
+    public synchronized int getQueueDepth() { return queue.size(); }
+    public synchronized int getInFlight() { return inFlight; }
+    public synchronized long getSent() { return sent; }
+    public synchronized long getFailed() { return failed; }
+    public synchronized long getDropped() { return dropped; }
+    public synchronized long getLastLatencyMs() { return lastLatencyMs; }
+    public synchronized long getMaxLatencyMs() { return maxLatencyMs; }
+    public synchronized long getAvgLatencyMs() { return Math.round(avgLatencyMs); }
+    public synchronized long getRetries() { return retries; }
+    public synchronized long getRateLimited() { return rateLimited; }
+    public synchronized int getRateLimitRemaining() { return remaining; }
+    public synchronized String getRateLimitBucket() { return bucket; }
+
+    public synchronized String getStatsSummary() {
+        return String.format("sent=%d failed=%d dropped=%d retries=%d rateLimited=%d inFlight=%d queued=%d latency avg=%dms max=%dms",
+                sent, failed, dropped, retries, rateLimited, inFlight, queue.size(), Math.round(avgLatencyMs), maxLatencyMs);
     }
-}
\ No newline at end of file
+}
@@ -2,13 +2,17 @@ package com.coop.bot;
 
 import com.coop.bot.config.ModConfig;
 import com.coop.bot.objects.DeathRecord;
-import com.coop.bot.objects.RegisteredUser;
+import com.coop.bot.metrics.Counter;
+import com.coop.bot.metrics.Histogram;
+import com.coop.bot.metrics.MetricRegistry;
+import com.coop.bot.objects.PlayerProfile;
 import net.fabricmc.fabric.api.entity.event.v1.ServerLivingEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.message.v1.ServerMessageEvents;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.entity.player.Player;
 import net.minecraft.network.chat.PlayerChatMessage;
 import net.minecraft.server.level.ServerPlayer;
 import org.slf4j.Logger;
@@ -20,45 +24,96 @@ public class EventListener {
     private static DiscordBotManager discordBotManager;
     private static ModConfig config;
     private static DeathTracking deathTracking;
+    private static DeathWorker deathWorker;
+    private static DeathFilter deathFilter;
+
+    private static final MetricRegistry METRICS = MetricRegistry.getInstance();
+    private static final Counter JOIN_EVENTS = METRICS.counter("coopbot_events_total", "Events handled by type", "type", "join");
+    private static final Counter LEAVE_EVENTS = METRICS.counter("coopbot_events_total", "Events handled by type", "type", "leave");
+    private static final Counter DEATH_EVENTS = METRICS.counter("coopbot_events_total", "Events handled by type", "type", "death");
+    private static final Counter FILTERED_DEATHS = METRICS.counter("coopbot_events_total", "Events handled by type", "type", "death_ignored");
+    private static final Counter CHAT_EVENTS = METRICS.counter("coopbot_events_total", "Events handled by type", "type", "chat");
+    private static final Histogram JOIN_TIME = METRICS.histogram("coopbot_server_thread_seconds", "Time spent on the server thread per callback", "callback", "join");
+    private static final Histogram LEAVE_TIME = METRICS.histogram("coopbot_server_thread_seconds", "Time spent on the server thread per callback", "callback", "leave");
+    private static final Histogram DEATH_TIME = METRICS.histogram("coopbot_server_thread_seconds", "Time spent on the server thread per callback", "callback", "death");
+    private static final Histogram CHAT_TIME = METRICS.histogram("coopbot_server_thread_seconds", "Time spent on the server thread per callback", "callback", "chat");
+    private static final Histogram DEATH_HANDLE_TIME = METRICS.histogram("coopbot_death_worker_seconds", "Time the death worker spends per death");
 
     public static void intialize(DiscordBotManager manager, ModConfig cfg, DeathTracking deathTrck ) {
         discordBotManager = manager;
         config = cfg;
         deathTracking = deathTrck;
 
+        deathFilter = DeathFilter.compile(config);
+
+        // Deaths are captured on the server thread and processed on their own thread
+        deathWorker = new DeathWorker(config.getDeathQueueSize(), EventListener::handleDeath, deathTracking::tick);
+        deathWorker.start();
+        DeathEventQueue deathQueue = deathWorker.getQueue();
+        METRICS.gauge("coopbot_death_queue_depth", "Deaths waiting for the death worker", deathQueue::size);
+        METRICS.counter("coopbot_death_queue_dropped_total", "Deaths dropped because the queue was full", deathQueue::getDroppedMobDeaths, "kind", "mob");
+        METRICS.counter("coopbot_death_queue_dropped_total", "Deaths dropped because the queue was full", deathQueue::getDroppedPlayerDeaths, "kind", "player");
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            deathWorker.shutdown();
+            // After the worker so deaths it already took are journaled
+            deathTracking.shutdown();
+        });
+
         // Register player join event
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            long start = System.nanoTime();
+            JOIN_EVENTS.inc();
             onPlayerJoin(handler.player);
+            JOIN_TIME.observeNanos(System.nanoTime() - start);
         });
 
         ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            long start = System.nanoTime();
+            LEAVE_EVENTS.inc();
             onPlayerLeave(handler.player);
+            LEAVE_TIME.observeNanos(System.nanoTime() - start);
+        });
+
+        ServerLivingEntityEvents.AFTER_DEATH.register((entity, source) -> {
+            // Most deaths stop here, before anything is timed or allocated
+            int action = deathFilter.classify(entity);
+            if (action == DeathFilter.IGNORE) {
+                FILTERED_DEATHS.inc();
+                return;
+            }
+            long start = System.nanoTime();
+            DEATH_EVENTS.inc();
+            onEntityDeath(entity, source, action == DeathFilter.POST);
+            DEATH_TIME.observeNanos(System.nanoTime() - start);
         });
 
-        ServerLivingEntityEvents.AFTER_DEATH.register(EventListener::onEntityDeath);
+        // Discord -> Minecraft chat is broadcast here, on the server thread
+        ServerTickEvents.END_SERVER_TICK.register(server -> discordBotManager.getInboundRelay().drain(server));
 
         ServerMessageEvents.CHAT_MESSAGE.register((message, sender, typeKey) -> {
-           onChatMessage(message, sender);
+            long start = System.nanoTime();
+            CHAT_EVENTS.inc();
+            onChatMessage(message, sender);
+            CHAT_TIME.observeNanos(System.nanoTime() - start);
         });
 
         LOGGER.info("EventListener registered successfully");
     }
 
     private static void onPlayerJoin(ServerPlayer player) {
-        String playerName = player.getName().getString();
-        
+        PlayerProfile profile = PlayerProfiles.getInstance().join(player);
+        String playerName = profile.getName();
+
         // Check visibility preferences for registered players
-        RegisteredUser reg = RegistrationStore.getInstance().getByMinecraft(playerName);
-        if (reg != null && !reg.isShowJoinLeave()) {
+        if (!profile.isShowJoinLeave()) {
             LOGGER.debug("Suppressed join message for " + playerName + " (visibility setting)");
             return;
         }
         
-        String message = config.getJoinMessageFormat()
-                .replace("{player}", playerName);
+        String message = config.getJoinTemplate().render(playerName);
 
         try {
-            discordBotManager.sendToDiscord(message);
+            discordBotManager.sendToDiscord(message, OutboundScheduler.Lane.JOIN_LEAVE);
             LOGGER.info("Sent join message for player: " + playerName);
         } catch (Exception e) {
             LOGGER.error("Failed to send join message: " + e.getMessage());
@@ -66,58 +121,71 @@ public class EventListener {
     }
 
     private static void onPlayerLeave(ServerPlayer player) {
-        String playerName = player.getName().getString();
-        
+        PlayerProfile profile = PlayerProfiles.getInstance().leave(player.getUUID());
+        String playerName = profile != null ? profile.getName() : player.getName().getString();
+
         // Check visibility preferences for registered players
-        RegisteredUser reg = RegistrationStore.getInstance().getByMinecraft(playerName);
-        if (reg != null && !reg.isShowJoinLeave()) {
+        if (profile != null && !profile.isShowJoinLeave()) {
             LOGGER.debug("Suppressed leave message for " + playerName + " (visibility setting)");
             return;
         }
         
-        String message = config.getLeaveMessageFormat()
-                .replace("{player}", playerName);
+        String message = config.getLeaveTemplate().render(playerName);
 
         try {
-            discordBotManager.sendToDiscord(message);
+            discordBotManager.sendToDiscord(message, OutboundScheduler.Lane.JOIN_LEAVE);
             LOGGER.info("Sent leave message for player: " + playerName);
         } catch (Exception e) {
             LOGGER.error("Failed to send leave message: " + e.getMessage());
         }
     }
 
-    public static void onEntityDeath(LivingEntity entity, DamageSource source) {
+    // Server thread: only capture what we need from the entity, everything else happens on the death worker
+    public static void onEntityDeath(LivingEntity entity, DamageSource source, boolean post) {
+        try {
+            deathWorker.submit(DeathTracking.createDeathRecord(entity, source, post));
+        } catch (Exception e) {
+            LOGGER.error("Failed to capture death: " + e.getMessage());
+        }
+    }
+
+    // Death worker thread
+    private static void handleDeath(DeathRecord deathRecord) {
+        long start = System.nanoTime();
+        try {
+            handleDeathTimed(deathRecord);
+        } finally {
+            DEATH_HANDLE_TIME.observeNanos(System.nanoTime() - start);
+        }
+    }
+
+    private static void handleDeathTimed(DeathRecord deathRecord) {
         // DeathRecord and DeathTracking
         try {
-            DeathRecord deathRecord = DeathTracking.createDeathRecord(entity, source);
             boolean shouldSendDeathMessage = deathTracking.recordDeath(deathRecord);
 
-            if (shouldSendDeathMessage) {
+            if (!deathRecord.isPost()) {
+                LOGGER.debug("Tracked without posting (death filter): " + deathRecord.getEntityName());
+            } else if (shouldSendDeathMessage) {
                 // Check visibility preferences for registered players
-                if (entity instanceof Player) {
-                    String playerName = entity.getName().getString();
-                    RegisteredUser reg = RegistrationStore.getInstance().getByMinecraft(playerName);
-                    if (reg != null && !reg.isShowDeaths()) {
-                        LOGGER.debug("Suppressed death message for " + playerName + " (visibility setting)");
+                if (deathRecord.isPlayerDeath()) {
+                    PlayerProfile profile = PlayerProfiles.getInstance().get(deathRecord.getEntityUUID());
+                    if (profile != null && !profile.isShowDeaths()) {
+                        LOGGER.debug("Suppressed death message for " + profile.getName() + " (visibility setting)");
                         return;
                     }
                 }
                 
-                String deathMessage = DeathTracking.getDeathMessage(entity, source);
-                String message = config.getDeathMessageFormat()
-                        .replace("{message}", deathMessage);
-
-                String coords = "";
-                if (entity instanceof ServerPlayer) {
-                    coords = deathRecord.getDeathLocation();
-                }
-
-                message= message.replace("{coords}", coords);
-
-                discordBotManager.sendToDiscord(message, true);
-                LOGGER.info("Sent death message for: " + entity.getName().getString());
+                // Coords only for players
+                String coords = deathRecord.isPlayerDeath() ? deathRecord.getDeathLocation() : "";
+                String message = config.getDeathTemplate().render(deathRecord.getDeathMessage(), coords);
+
+                discordBotManager.sendToDiscord(message, deathRecord.isPlayerDeath()
+                        ? OutboundScheduler.Lane.PLAYER_DEATH
+                        : OutboundScheduler.Lane.MOB);
+                LOGGER.info("Sent death message for: " + deathRecord.getEntityName());
             } else {
-                LOGGER.debug("Suppressed death message (farming detected): " + entity.getName().getString());
+                LOGGER.debug("Suppressed death message (farming detected): " + deathRecord.getEntityName());
             }
 
         } catch (Exception e) {
@@ -0,0 +1,359 @@
+package com.coop.bot;
+
+import com.coop.bot.objects.DeathRecord;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.EntityType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Spots players (or anything else with a killer) farming mobs.
+ * <p>
+ * A session is a run of kills by the same killer with no more than INACTIVITY_SECONDS between them.
+ * Every killer has one session per victim type plus one across all types. A type session that reaches
+ * FARMING_THRESHOLD kills is a farm, and so is an all-types session that reaches MIXED_FARMING_THRESHOLD
+ * kills over at least two types while none of its type sessions is one (mob grinders with mixed spawns).
+ * Deaths that belong to a farm are suppressed, when the session ends a summary is sent.
+ * <p>
+ * Sessions are keyed by the killer's UUID bits and the victim's registry id in an open addressing table,
+ * so recording a kill allocates nothing. Expiry runs off a TimingWheel. Kill times come from the records,
+ * so a saved trace replays exactly as it happened.
+ * <p>
+ * Not thread safe: recordKill and advance must be called from the same thread (the death worker).
+ * getActiveSessions can be read from anywhere.
+ */
+public class FarmingDetector {
+    public static final int FARMING_THRESHOLD = 10;
+    public static final int MIXED_FARMING_THRESHOLD = 20;
+    public static final long INACTIVITY_SECONDS = 60;
+
+    // Type id of a killer's all-types session, the registry uses -1 for unknown types
+    private static final int ALL_TYPES = Integer.MIN_VALUE;
+    private static final int UNKNOWN_TYPE = -1;
+    private static final float MAX_LOAD = 0.5f;
+
+    private final Consumer<Session> onFarmingDetected;
+    private final Consumer<Session> onFarmingEnded;
+    private final TimingWheel<Session> expiry;
+
+    // Open addressing, linear probing. A null session marks an empty slot.
+    private long[] keyMost;
+    private long[] keyLeast;
+    private int[] keyType;
+    private Session[] sessions;
+    private int count;
+    private volatile int activeSessions;
+
+    // Killers without a UUID (projectiles with no owner) get a made-up id per name
+    private final Map<String, Long> namedKillers = new HashMap<>();
+
+    public FarmingDetector(long now, Consumer<Session> onFarmingDetected, Consumer<Session> onFarmingEnded) {
+        this.onFarmingDetected = onFarmingDetected;
+        this.onFarmingEnded = onFarmingEnded;
+        this.expiry = new TimingWheel<>(now, session -> session.lastKillTime + INACTIVITY_SECONDS + 1);
+        allocate(64);
+    }
+
+    /**
+     * Records a kill. Returns true if the death belongs to a farm and its message should not be sent.
+     */
+    public boolean recordKill(DeathRecord death) {
+        if (death == null || death.getKillerName() == null) {
+            return false;
+        }
+
+        long most;
+        long least;
+        UUID killer = death.getKillerUUID();
+        if (killer != null) {
+            most = killer.getMostSignificantBits();
+            least = killer.getLeastSignificantBits();
+        } else {
+            // Real UUIDs always have version bits in the high half, so 0 can't collide
+            most = 0;
+            least = namedKillers.computeIfAbsent(death.getKillerName(), name -> (long) namedKillers.size());
+        }
+        int typeId = typeId(death.getEntityType());
+        long time = death.getTimestamp();
+
+        Session all = session(most, least, ALL_TYPES, death, time);
+        Session byType = session(most, least, typeId, death, time);
+        byType.parent = all;
+        all.recordKill(typeId, death, time);
+        byType.recordKill(typeId, death, time);
+
+        if (!all.mixed && byType.killCount >= FARMING_THRESHOLD && !byType.farming) {
+            byType.farming = true;
+            all.farmingTypes++;
+            onFarmingDetected.accept(byType);
+        } else if (all.killCount >= MIXED_FARMING_THRESHOLD && all.typeCount >= 2
+                && all.farmingTypes == 0 && !all.farming) {
+            all.farming = true;
+            all.mixed = true;
+            onFarmingDetected.accept(all);
+        }
+
+        return byType.farming || all.farming;
+    }
+
+    /**
+     * Ends every session whose last kill was more than INACTIVITY_SECONDS before now.
+     */
+    public void advance(long now) {
+        expiry.advance(now, this::end);
+    }
+
+    public int getActiveSessions() {
+        return activeSessions;
+    }
+
+    // Existing live session, or a new one if there is none or it went quiet before this kill
+    private Session session(long most, long least, int typeId, DeathRecord death, long time) {
+        int slot = find(most, least, typeId);
+        Session session = sessions[slot];
+        if (session != null) {
+            if (time - session.lastKillTime <= INACTIVITY_SECONDS) {
+                return session;
+            }
+            // The wheel hasn't got to it yet
+            end(session);
+            slot = find(most, least, typeId);
+        }
+
+        session = new Session(most, least, typeId, death, time);
+        keyMost[slot] = most;
+        keyLeast[slot] = least;
+        keyType[slot] = typeId;
+        sessions[slot] = session;
+        activeSessions = ++count;
+        expiry.add(session);
+        if (count > sessions.length * MAX_LOAD) {
+            allocate(sessions.length * 2);
+        }
+        return session;
+    }
+
+    private void end(Session session) {
+        if (session.ended) return; // Replaced early, the wheel still had it
+        session.ended = true;
+        int slot = find(session.keyMost, session.keyLeast, session.typeId);
+        if (sessions[slot] == session) remove(slot);
+        if (session.farming) {
+            if (session.parent != null && !session.parent.ended) session.parent.farmingTypes--;
+            onFarmingEnded.accept(session);
+        }
+    }
+
+    // ----------
+    // Table
+    // ----------
+
+    private int find(long most, long least, int typeId) {
+        int mask = sessions.length - 1;
+        int slot = hash(most, least, typeId) & mask;
+        while (sessions[slot] != null
+                && (keyMost[slot] != most || keyLeast[slot] != least || keyType[slot] != typeId)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void remove(int slot) {
+        if (sessions[slot] == null) return;
+        int mask = sessions.length - 1;
+        // Backward shift, pulls later entries of the probe run into the gap so lookups never stop early
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (sessions[next] != null) {
+            int home = hash(keyMost[next], keyLeast[next], keyType[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keyMost[gap] = keyMost[next];
+                keyLeast[gap] = keyLeast[next];
+                keyType[gap] = keyType[next];
+                sessions[gap] = sessions[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        sessions[gap] = null;
+        activeSessions = --count;
+    }
+
+    private void allocate(int capacity) {
+        long[] oldMost = keyMost;
+        long[] oldLeast = keyLeast;
+        int[] oldType = keyType;
+        Session[] oldSessions = sessions;
+
+        keyMost = new long[capacity];
+        keyLeast = new long[capacity];
+        keyType = new int[capacity];
+        sessions = new Session[capacity];
+        if (oldSessions == null) return;
+
+        for (int i = 0; i < oldSessions.length; i++) {
+            if (oldSessions[i] == null) continue;
+            int slot = find(oldMost[i], oldLeast[i], oldType[i]);
+            keyMost[slot] = oldMost[i];
+            keyLeast[slot] = oldLeast[i];
+            keyType[slot] = oldType[i];
+            sessions[slot] = oldSessions[i];
+        }
+    }
+
+    private static int hash(long most, long least, int typeId) {
+        long h = (most ^ Long.rotateLeft(least, 17)) * 0x9E3779B97F4A7C15L + typeId;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int typeId(EntityType<?> type) {
+        return type == null ? UNKNOWN_TYPE : BuiltInRegistries.ENTITY_TYPE.getId(type);
+    }
+
+    // ----------
+    // Sessions
+    // ----------
+
+    /**
+     * Kills by one killer, of one type or of all types. Only touched by the detector's thread, the
+     * callbacks run on that thread too.
+     */
+    public static final class Session {
+        private final long keyMost;
+        private final long keyLeast;
+        private final int typeId;
+        private final String killerName;
+        private final UUID killerUUID;
+        private final long startTime;
+        private long lastKillTime;
+        private int killCount;
+        private boolean farming;
+        private boolean mixed;
+        private boolean ended;
+        private Session parent; // The all-types session, for type sessions
+        private int farmingTypes; // Type sessions that are farms, for all-types sessions
+
+        // Kills per victim type, in the order they were first seen
+        private int[] typeIds = new int[2];
+        private int[] typeKills = new int[2];
+        private String[] typeNames = new String[2];
+        private EntityType<?>[] types = new EntityType<?>[2];
+        private int typeCount;
+
+        private Session(long keyMost, long keyLeast, int typeId, DeathRecord first, long time) {
+            this.keyMost = keyMost;
+            this.keyLeast = keyLeast;
+            this.typeId = typeId;
+            this.killerName = first.getKillerName();
+            this.killerUUID = first.getKillerUUID();
+            this.startTime = time;
+            this.lastKillTime = time;
+        }
+
+        private void recordKill(int victimTypeId, DeathRecord death, long time) {
+            killCount++;
+            lastKillTime = Math.max(lastKillTime, time);
+
+            for (int i = 0; i < typeCount; i++) {
+                if (typeIds[i] == victimTypeId) {
+                    typeKills[i]++;
+                    return;
+                }
+            }
+            if (typeCount == typeIds.length) {
+                typeIds = Arrays.copyOf(typeIds, typeCount * 2);
+                typeKills = Arrays.copyOf(typeKills, typeCount * 2);
+                typeNames = Arrays.copyOf(typeNames, typeCount * 2);
+                types = Arrays.copyOf(types, typeCount * 2);
+            }
+            typeIds[typeCount] = victimTypeId;
+            typeKills[typeCount] = 1;
+            typeNames[typeCount] = death.getEntityName();
+            types[typeCount] = death.getEntityType();
+            typeCount++;
+        }
+
+        public String getKillerName() {
+            return killerName;
+        }
+
+        public UUID getKillerUUID() {
+            return killerUUID;
+        }
+
+        public boolean isMixed() {
+            return mixed;
+        }
+
+        /**
+         * "Zombie" for a single type, "Zombie, Skeleton and Creeper" for a mixed farm (most killed first).
+         */
+        public String getEntityName() {
+            if (typeCount == 1) return typeNames[0];
+
+            int[] order = order();
+            StringBuilder sb = new StringBuilder();
+            int shown = Math.min(order.length, 3);
+            for (int i = 0; i < shown; i++) {
+                if (i > 0) sb.append(i == shown - 1 && order.length <= 3 ? " and " : ", ");
+                sb.append(typeNames[order[i]]);
+            }
+            if (order.length > 3) sb.append(" and others");
+            return sb.toString();
+        }
+
+        public int getKillCount() {
+            return killCount;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getLastKillTime() {
+            return lastKillTime;
+        }
+
+        public int getTypeCount() {
+            return typeCount;
+        }
+
+        public EntityType<?> getType(int index) {
+            return types[order()[index]];
+        }
+
+        public String getTypeName(int index) {
+            return typeNames[order()[index]];
+        }
+
+        public int getTypeKills(int index) {
+            return typeKills[order()[index]];
+        }
+
+        public String getFormattedDuration() {
+            long duration = lastKillTime - startTime;
+            long minutes = duration / 60;
+            long seconds = duration % 60;
+            if (minutes > 0) {
+                return String.format("%dm %ds", minutes, seconds);
+            }
+            return String.format("%ds", seconds);
+        }
+
+        // Type indexes by kills, descending. Only used when formatting, so sorting each time is fine.
+        private int[] order() {
+            Integer[] order = new Integer[typeCount];
+            for (int i = 0; i < typeCount; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Integer.compare(typeKills[b], typeKills[a]));
+            int[] result = new int[typeCount];
+            for (int i = 0; i < typeCount; i++) result[i] = order[i];
+            return result;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.coop.bot;
+
+import com.coop.bot.objects.DeathRecord;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import net.minecraft.world.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Spots mob farms that kill without an attacker (fall damage, lava, drowning, cramming), which
+ * FarmingDetector can't see because there is no killer to key on.
+ * <p>
+ * Mob deaths with no killer are counted per chunk, per dimension, in a sliding window of
+ * BUCKETS x BUCKET_SECONDS. A chunk that reaches HOTSPOT_THRESHOLD deaths in the window becomes a
+ * hotspot. Deaths in it or in the 8 chunks around it (kill chambers often straddle a chunk border) are
+ * suppressed and counted towards it. When it has gone INACTIVITY_SECONDS without a death, a summary is
+ * sent. Player deaths are never part of a hotspot.
+ * <p>
+ * Not thread safe: recordDeath and advance must be called from the same thread (the death worker).
+ * getActiveHotspots can be read from anywhere.
+ */
+public class HotspotDetector {
+    public static final int HOTSPOT_THRESHOLD = 10;
+    public static final int BUCKET_SECONDS = 5;
+    public static final int BUCKETS = 6; // 30 second window
+    public static final long INACTIVITY_SECONDS = 60;
+
+    private final Consumer<Hotspot> onHotspotDetected;
+    private final Consumer<Hotspot> onHotspotEnded;
+    private final TLongObjectHashMap<Cell> cells = new TLongObjectHashMap<>();
+    private final TimingWheel<Cell> expiry;
+    // Dimension name -> the id packed into cell keys
+    private final Map<String, Integer> dimensions = new HashMap<>();
+    private volatile int activeHotspots;
+
+    public HotspotDetector(long now, Consumer<Hotspot> onHotspotDetected, Consumer<Hotspot> onHotspotEnded) {
+        this.onHotspotDetected = onHotspotDetected;
+        this.onHotspotEnded = onHotspotEnded;
+        this.expiry = new TimingWheel<>(now, Cell::deadline);
+    }
+
+    /**
+     * Records a death. Returns true if it belongs to a hotspot and its message should not be sent.
+     */
+    public boolean recordDeath(DeathRecord death) {
+        if (death == null || death.getKillerName() != null || death.isPlayerDeath() || death.getDimension() == null) {
+            return false;
+        }
+
+        int dimension = dimensions.computeIfAbsent(death.getDimension(), name -> dimensions.size());
+        int chunkX = (int) Math.floor(death.getDeathX()) >> 4;
+        int chunkZ = (int) Math.floor(death.getDeathZ()) >> 4;
+        long time = death.getTimestamp();
+
+        long key = key(dimension, chunkX, chunkZ);
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = new Cell(key);
+            cells.put(key, cell);
+            expiry.add(cell);
+        }
+        int windowCount = cell.record(time);
+
+        Hotspot hotspot = cell.hotspot != null && !cell.hotspot.ended ? cell.hotspot : null;
+        if (hotspot == null) {
+            hotspot = findNeighbour(dimension, chunkX, chunkZ);
+            cell.hotspot = hotspot;
+        }
+        if (hotspot == null && windowCount >= HOTSPOT_THRESHOLD) {
+            hotspot = new Hotspot(death, chunkX, chunkZ, time);
+            // The deaths that got it here were already posted, but still count towards the total
+            hotspot.deaths = windowCount - 1;
+            cell.hotspot = hotspot;
+            cell.owner = true;
+            activeHotspots++;
+            hotspot.record(death, time);
+            onHotspotDetected.accept(hotspot);
+            return true;
+        }
+        if (hotspot == null) {
+            return false;
+        }
+
+        hotspot.record(death, time);
+        return true;
+    }
+
+    /**
+     * Drops chunks that went quiet and ends hotspots with no deaths for INACTIVITY_SECONDS.
+     */
+    public void advance(long now) {
+        expiry.advance(now, this::expire);
+    }
+
+    public int getActiveHotspots() {
+        return activeHotspots;
+    }
+
+    private void expire(Cell cell) {
+        cells.remove(cell.key);
+        if (cell.owner && !cell.hotspot.ended) {
+            cell.hotspot.ended = true;
+            activeHotspots--;
+            onHotspotEnded.accept(cell.hotspot);
+        }
+    }
+
+    private Hotspot findNeighbour(int dimension, int chunkX, int chunkZ) {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                if (dx == 0 && dz == 0) continue;
+                Cell neighbour = cells.get(key(dimension, chunkX + dx, chunkZ + dz));
+                if (neighbour != null && neighbour.owner && !neighbour.hotspot.ended) {
+                    return neighbour.hotspot;
+                }
+            }
+        }
+        return null;
+    }
+
+    // 16 bits of dimension, 24 bits each of chunk x / z (the world border is ±1.9M chunks)
+    private static long key(int dimension, int chunkX, int chunkZ) {
+        return ((long) dimension << 48) | ((long) (chunkX & 0xFFFFFF) << 24) | (chunkZ & 0xFFFFFF);
+    }
+
+    private static final class Cell {
+        final long key;
+        // Ring of per-bucket counts, bucketEpoch says which BUCKET_SECONDS slice each one currently holds
+        final int[] counts = new int[BUCKETS];
+        final long[] bucketEpoch = new long[BUCKETS];
+        long lastDeathTime;
+        Hotspot hotspot; // Owned, or a neighbour's this chunk's deaths count towards
+        boolean owner;
+
+        Cell(long key) {
+            this.key = key;
+        }
+
+        // Deaths in the window, including this one
+        int record(long time) {
+            lastDeathTime = Math.max(lastDeathTime, time);
+            long epoch = time / BUCKET_SECONDS;
+            int slot = (int) Math.floorMod(epoch, BUCKETS);
+            if (bucketEpoch[slot] != epoch) {
+                bucketEpoch[slot] = epoch;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+
+            int total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                if (epoch - bucketEpoch[i] < BUCKETS) total += counts[i];
+            }
+            return total;
+        }
+
+        // Kept while the window has deaths in it, or while its hotspot is still going
+        long deadline() {
+            long deadline = lastDeathTime + (long) BUCKETS * BUCKET_SECONDS;
+            if (owner && !hotspot.ended) {
+                deadline = Math.max(deadline, hotspot.lastDeathTime + INACTIVITY_SECONDS + 1);
+            }
+            return deadline;
+        }
+    }
+
+    /**
+     * One environmental farm. Only touched by the detector's thread, the callbacks run on that thread too.
+     */
+    public static final class Hotspot {
+        private final String dimension;
+        private final int blockX;
+        private final int blockY;
+        private final int blockZ;
+        private final long startTime;
+        private long lastDeathTime;
+        private int deaths;
+        private boolean ended;
+        private final TObjectIntHashMap<String> deathsByName = new TObjectIntHashMap<>();
+        private final Map<String, EntityType<?>> typesByName = new HashMap<>();
+        private final TObjectIntHashMap<String> deathsBySource = new TObjectIntHashMap<>();
+
+        private Hotspot(DeathRecord first, int chunkX, int chunkZ, long time) {
+            this.dimension = first.getDimension();
+            // Centre of the chunk, at the height of the first death
+            this.blockX = (chunkX << 4) + 8;
+            this.blockY = (int) Math.floor(first.getDeathY());
+            this.blockZ = (chunkZ << 4) + 8;
+            this.startTime = time;
+            this.lastDeathTime = time;
+        }
+
+        private void record(DeathRecord death, long time) {
+            deaths++;
+            lastDeathTime = Math.max(lastDeathTime, time);
+            if (deathsByName.adjustOrPutValue(death.getEntityName(), 1, 1) == 1) {
+                typesByName.put(death.getEntityName(), death.getEntityType());
+            }
+            deathsBySource.adjustOrPutValue(death.getDamageSource(), 1, 1);
+        }
+
+        public String getLocation() {
+            return String.format("[%d, %d, %d] in %s", blockX, blockY, blockZ, dimension);
+        }
+
+        /**
+         * Most common mob, e.g. "Zombie".
+         */
+        public String getEntityName() {
+            return sorted(deathsByName).get(0);
+        }
+
+        public int getDeaths() {
+            return deaths;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getLastDeathTime() {
+            return lastDeathTime;
+        }
+
+        /**
+         * Mob names, most deaths first.
+         */
+        public List<String> getEntityNames() {
+            return sorted(deathsByName);
+        }
+
+        public int getDeaths(String entityName) {
+            return deathsByName.get(entityName);
+        }
+
+        public EntityType<?> getEntityType(String entityName) {
+            return typesByName.get(entityName);
+        }
+
+        /**
+         * Damage source ids ("fall", "lava", "cramming"...), most deaths first.
+         */
+        public List<String> getDamageSources() {
+            return sorted(deathsBySource);
+        }
+
+        public int getDeathsBySource(String damageSource) {
+            return deathsBySource.get(damageSource);
+        }
+
+        public String getFormattedDuration() {
+            long duration = lastDeathTime - startTime;
+            long minutes = duration / 60;
+            long seconds = duration % 60;
+            if (minutes > 0) {
+                return String.format("%dm %ds", minutes, seconds);
+            }
+            return String.format("%ds", seconds);
+        }
+
+        private static List<String> sorted(TObjectIntHashMap<String> counts) {
+            List<String> keys = new ArrayList<>(counts.keySet());
+            keys.sort((a, b) -> Integer.compare(counts.get(b), counts.get(a)));
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.coop.bot;
+
+import com.coop.bot.metrics.MetricRegistry;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Discord -> Minecraft messages. Components are built on JDA's threads and queued here, the server
+ * thread broadcasts them at the end of each tick, so nothing touches the player list from another thread.
+ * <p>
+ * Everything waiting is sent as one multi-line broadcast, up to MAX_MESSAGES_PER_TICK messages. The rest
+ * waits for the next tick, so a spam wave is spread out instead of stretching one tick. When more than
+ * MAX_QUEUED messages are waiting, new ones are dropped.
+ */
+public class InboundRelay {
+    private static final Logger LOGGER = LoggerFactory.getLogger("CoopBot-InboundRelay");
+    // 160 messages a second at 20 TPS
+    public static final int MAX_MESSAGES_PER_TICK = 8;
+    public static final int MAX_QUEUED = 500;
+    private static final long DROP_LOG_INTERVAL = 100;
+
+    private static final Component NEWLINE = Component.literal("\n");
+
+    private final ConcurrentLinkedQueue<Component> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public InboundRelay() {
+        MetricRegistry metrics = MetricRegistry.getInstance();
+        metrics.gauge("coopbot_inbound_queue_depth", "Discord messages waiting for the server thread", queued::get);
+        metrics.counter("coopbot_inbound_messages_total", "Discord messages shown in Minecraft", delivered::sum);
+        metrics.counter("coopbot_inbound_broadcasts_total", "Broadcasts used to show them", broadcasts::sum);
+        metrics.counter("coopbot_inbound_dropped_total", "Discord messages dropped because the queue was full", dropped::sum);
+    }
+
+    /**
+     * Any thread.
+     */
+    public void enqueue(Component message) {
+        if (queued.incrementAndGet() > MAX_QUEUED) {
+            queued.decrementAndGet();
+            dropped.increment();
+            if (dropped.sum() % DROP_LOG_INTERVAL == 1) {
+                LOGGER.warn("Discord -> Minecraft queue full, dropped {} messages so far", dropped.sum());
+            }
+            return;
+        }
+        queue.offer(message);
+    }
+
+    /**
+     * Server thread, END_SERVER_TICK.
+     */
+    public void drain(MinecraftServer server) {
+        Component first = queue.poll();
+        if (first == null) return;
+
+        MutableComponent combined = null;
+        int count = 1;
+        Component next;
+        while (count < MAX_MESSAGES_PER_TICK && (next = queue.poll()) != null) {
+            if (combined == null) combined = Component.empty().append(first);
+            combined.append(NEWLINE).append(next);
+            count++;
+        }
+        queued.addAndGet(-count);
+
+        server.getPlayerList().broadcastSystemMessage(combined != null ? combined : first, false);
+        delivered.add(count);
+        broadcasts.increment();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+}
@@ -0,0 +1,71 @@
+package com.coop.bot;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Merges queued messages for one channel into as few Discord messages as possible, one per line, up to
+ * Discord's 2000 character limit. Messages keep their order.
+ * <p>
+ * A queue that waits for the window holds its first message for windowMs, so a burst that arrives
+ * together goes out as one message, unless enough is already queued to fill one. OutboundScheduler
+ * calls this from its drain thread with the channel's lock held, the counters can be read from anywhere.
+ */
+public class MessageCoalescer {
+    public static final int DISCORD_MESSAGE_LIMIT = 2000;
+
+    record Pending(String message, long queuedAt) {}
+
+    private final long windowMs;
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder apiCalls = new LongAdder();
+
+    public MessageCoalescer(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Takes the next merged message off the queue, or returns null if it is empty or still inside its
+     * window. Every message returned counts as one API call.
+     */
+    String nextBatch(ArrayDeque<Pending> queue, boolean waitForWindow, long now) {
+        Pending head = queue.peekFirst();
+        if (head == null) return null;
+
+        boolean windowOver = !waitForWindow || now - head.queuedAt() >= windowMs;
+        if (!windowOver && queuedLength(queue) < DISCORD_MESSAGE_LIMIT) return null;
+
+        StringBuilder batch = new StringBuilder(queue.pollFirst().message());
+        int merged = 1;
+        while (!queue.isEmpty()
+                && batch.length() + 1 + queue.peekFirst().message().length() <= DISCORD_MESSAGE_LIMIT) {
+            batch.append('\n').append(queue.pollFirst().message());
+            merged++;
+        }
+        messagesSent.add(merged);
+        apiCalls.increment();
+        return batch.toString();
+    }
+
+    private static int queuedLength(ArrayDeque<Pending> queue) {
+        int length = 0;
+        for (Pending pending : queue) {
+            length += pending.message().length() + 1;
+            if (length >= DISCORD_MESSAGE_LIMIT) break;
+        }
+        return length;
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    public long getApiCalls() {
+        return apiCalls.sum();
+    }
+
+    // Messages that went out merged with others, minus the calls they went out in
+    public long getApiCallsSaved() {
+        return messagesSent.sum() - apiCalls.sum();
+    }
+}
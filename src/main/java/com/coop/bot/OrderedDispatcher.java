@@ -0,0 +1,68 @@
+package com.coop.bot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks in order per destination key, with different keys running in parallel.
+ * A task for a key only starts once the previous task for that key has finished, so it can
+ * block (e.g. wait for Discord to accept a message) without reordering anything behind it.
+ * Tasks run on virtual threads, so a blocked send costs next to nothing.
+ */
+public class OrderedDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger("CoopBot-Dispatcher");
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("CoopBot-Send-", 0).factory());
+    // Last task submitted per key, removed once it finishes with nothing queued behind it
+    private final ConcurrentHashMap<String, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+    public <T> CompletableFuture<T> submit(String key, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<?> previous = tails.put(key, result);
+
+        Runnable run = () -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                tails.remove(key, result);
+            }
+        };
+
+        if (previous == null) {
+            executor.execute(run);
+        } else {
+            // Failures of the previous task don't stop the queue
+            previous.whenComplete((ignored, error) -> executor.execute(run));
+        }
+        return result;
+    }
+
+    /**
+     * Destinations with work queued or running.
+     */
+    public int getActiveKeys() {
+        return tails.size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.warn("Gave up waiting for {} destinations to finish sending", tails.size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
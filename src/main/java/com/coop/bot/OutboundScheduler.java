@@ -0,0 +1,275 @@
+package com.coop.bot;
+
+import com.coop.bot.metrics.Histogram;
+import com.coop.bot.metrics.MetricRegistry;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends bot messages to Discord from priority lanes, one token bucket per channel.
+ * <p>
+ * Each channel drains its highest priority non-empty lane first, so a flood of mob messages
+ * can't hold up chat. Messages waiting in the same lane are merged into one Discord message (up to
+ * 2000 characters) by the MessageCoalescer. Lanes other than chat hold their first message for the
+ * coalesce window so bursts get merged. Low priority lanes are capped in size and age, and shed their
+ * oldest messages when they fall too far behind.
+ * <p>
+ * TextChannel handles are resolved once and refreshed on channel events, not per message. Until the
+ * bot is ready nothing is resolved, so messages from startup wait in their lanes (within the lane's size
+ * and age caps) and go out once the channels are registered, the status lane first.
+ * Batches are handed to the OrderedDispatcher keyed by channel, so each channel's messages go out
+ * strictly in order while different channels send in parallel.
+ */
+public class OutboundScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger("CoopBot-Outbound");
+
+    // Discord allows roughly 5 messages per 5 seconds per channel
+    private static final int CHANNEL_BURST = 5;
+    private static final long CHANNEL_REFILL_MS = 1000;
+    private static final long DRAIN_INTERVAL_MS = 50;
+
+    public enum Lane {
+        // Highest priority first
+        STATUS(10, 0, false, false), // Server online announcement, ahead of anything queued while connecting
+        CHAT(1000, 0, false, false),
+        JOIN_LEAVE(200, 0, true, false),
+        PLAYER_DEATH(200, TimeUnit.MINUTES.toMillis(5), true, true),
+        MOB(100, TimeUnit.MINUTES.toMillis(1), true, true);
+
+        private final int maxQueued;
+        private final long maxAgeMs; // 0 = never expires
+        private final boolean waitForWindow;
+        private final boolean mobChannel;
+
+        Lane(int maxQueued, long maxAgeMs, boolean waitForWindow, boolean mobChannel) {
+            this.maxQueued = maxQueued;
+            this.maxAgeMs = maxAgeMs;
+            this.waitForWindow = waitForWindow;
+            this.mobChannel = mobChannel;
+        }
+
+        public boolean isMobChannel() {
+            return mobChannel;
+        }
+    }
+
+    private static final class ChannelState {
+        final String channelId;
+        final ArrayDeque<MessageCoalescer.Pending>[] lanes;
+        volatile TextChannel channel;
+        double tokens = CHANNEL_BURST;
+        long lastRefill = System.currentTimeMillis();
+
+        @SuppressWarnings("unchecked")
+        ChannelState(String channelId) {
+            this.channelId = channelId;
+            this.lanes = new ArrayDeque[Lane.values().length];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = new ArrayDeque<>();
+            }
+        }
+
+        int queued() {
+            int total = 0;
+            for (ArrayDeque<MessageCoalescer.Pending> lane : lanes) total += lane.size();
+            return total;
+        }
+    }
+
+    private final MessageCoalescer coalescer;
+    private final OrderedDispatcher dispatcher;
+    private final Map<String, ChannelState> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "CoopBot-Outbound");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder messagesShed = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+    // Completed by the first message Discord accepts, startup logs time-to-first-relay from it
+    private final CompletableFuture<Void> firstSend = new CompletableFuture<>();
+    private static final Histogram SEND_TIME = MetricRegistry.getInstance()
+            .histogram("coopbot_discord_send_seconds", "Time for Discord to accept a bot message", "via", "jda");
+
+    public OutboundScheduler(long windowMs, OrderedDispatcher dispatcher) {
+        this.coalescer = new MessageCoalescer(windowMs);
+        this.dispatcher = dispatcher;
+        executor.scheduleWithFixedDelay(this::drainAll, DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        MetricRegistry metrics = MetricRegistry.getInstance();
+        metrics.gauge("coopbot_outbound_queue_depth", "Bot messages waiting to be sent", this::getQueuedMessages);
+        metrics.counter("coopbot_outbound_api_calls_total", "Messages sent to Discord (after merging)", this::getApiCalls);
+        metrics.counter("coopbot_outbound_shed_total", "Bot messages dropped because their lane was full or too old", this::getMessagesShed);
+        metrics.counter("coopbot_send_failures_total", "Sends Discord did not accept", sendFailures::sum, "via", "jda");
+    }
+
+    /**
+     * Any thread. Queues a message, dropping the lane's oldest if it is full.
+     */
+    public void submit(String channelId, Lane lane, String message) {
+        if (channelId == null || channelId.isEmpty()) return;
+
+        ChannelState state = channels.computeIfAbsent(channelId, ChannelState::new);
+        synchronized (state) {
+            ArrayDeque<MessageCoalescer.Pending> queue = state.lanes[lane.ordinal()];
+            if (queue.size() >= lane.maxQueued) {
+                queue.pollFirst();
+                messagesShed.increment();
+            }
+            queue.addLast(new MessageCoalescer.Pending(message, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Re-resolves every known channel, call on ready and whenever one of our channels changes.
+     */
+    public void refreshChannels(JDA jda) {
+        for (ChannelState state : channels.values()) {
+            state.channel = jda != null ? jda.getTextChannelById(state.channelId) : null;
+        }
+    }
+
+    public void registerChannel(String channelId, JDA jda) {
+        if (channelId == null || channelId.isEmpty()) return;
+        ChannelState state = channels.computeIfAbsent(channelId, ChannelState::new);
+        state.channel = jda != null ? jda.getTextChannelById(channelId) : null;
+    }
+
+    public boolean isTracked(String channelId) {
+        return channels.containsKey(channelId);
+    }
+
+    private void drainAll() {
+        long now = System.currentTimeMillis();
+        for (ChannelState state : channels.values()) {
+            try {
+                drain(state, now);
+            } catch (Exception e) {
+                LOGGER.error("Failed to drain outbound messages for " + state.channelId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void drain(ChannelState state, long now) {
+        TextChannel channel = state.channel;
+
+        synchronized (state) {
+            shedExpired(state, now);
+            // Messages stay queued until the channel is resolved
+            if (channel == null) return;
+
+            long elapsed = now - state.lastRefill;
+            if (elapsed > 0) {
+                state.tokens = Math.min(CHANNEL_BURST, state.tokens + (double) elapsed / CHANNEL_REFILL_MS);
+                state.lastRefill = now;
+            }
+
+            while (state.tokens >= 1) {
+                String batch = nextBatch(state, now);
+                if (batch == null) break;
+
+                state.tokens -= 1;
+                send(channel, batch);
+            }
+        }
+    }
+
+    // One merged message from the highest priority lane that is ready
+    private String nextBatch(ChannelState state, long now) {
+        for (Lane lane : Lane.values()) {
+            String batch = coalescer.nextBatch(state.lanes[lane.ordinal()], lane.waitForWindow, now);
+            if (batch != null) return batch;
+        }
+        return null;
+    }
+
+    private void shedExpired(ChannelState state, long now) {
+        for (Lane lane : Lane.values()) {
+            if (lane.maxAgeMs == 0) continue;
+            ArrayDeque<MessageCoalescer.Pending> queue = state.lanes[lane.ordinal()];
+            while (!queue.isEmpty() && now - queue.peekFirst().queuedAt() > lane.maxAgeMs) {
+                queue.pollFirst();
+                messagesShed.increment();
+            }
+        }
+    }
+
+    private void send(TextChannel channel, String message) {
+        if (!channel.canTalk()) {
+            sendFailures.increment();
+            LOGGER.warn("Cannot talk in channel " + channel.getId() + ", dropping message");
+            return;
+        }
+        dispatcher.submit("channel:" + channel.getId(), () -> {
+            // Waits for Discord on a virtual thread, the next batch for this channel starts after
+            long start = System.nanoTime();
+            try {
+                channel.sendMessage(message).complete();
+                firstSend.complete(null);
+                LOGGER.debug("Message sent to Discord");
+            } catch (Exception e) {
+                sendFailures.increment();
+                LOGGER.error("Failed to send to Discord: " + e.getMessage());
+            }
+            SEND_TIME.observeNanos(System.nanoTime() - start);
+            return null;
+        });
+    }
+
+    public int getQueuedMessages() {
+        int total = 0;
+        for (ChannelState state : channels.values()) {
+            synchronized (state) {
+                total += state.queued();
+            }
+        }
+        return total;
+    }
+
+    public long getApiCalls() {
+        return coalescer.getApiCalls();
+    }
+
+    public long getApiCallsSaved() {
+        return coalescer.getApiCallsSaved();
+    }
+
+    public long getMessagesShed() {
+        return messagesShed.sum();
+    }
+
+    public CompletableFuture<Void> getFirstSend() {
+        return firstSend;
+    }
+
+    /**
+     * Sends whatever is still queued, ignoring windows and token buckets, then stops the drain thread.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        for (ChannelState state : channels.values()) {
+            TextChannel channel = state.channel;
+            if (channel == null) continue;
+            synchronized (state) {
+                String batch;
+                while ((batch = nextBatch(state, Long.MAX_VALUE)) != null) {
+                    send(channel, batch);
+                }
+            }
+        }
+        LOGGER.info("Sent {} messages in {} API calls ({} saved, {} shed)",
+                coalescer.getMessagesSent(), coalescer.getApiCalls(), coalescer.getApiCallsSaved(), messagesShed.sum());
+    }
+}
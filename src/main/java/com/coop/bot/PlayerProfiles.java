@@ -0,0 +1,91 @@
+package com.coop.bot;
+
+import com.coop.bot.objects.PlayerProfile;
+import com.coop.bot.objects.RegisteredUser;
+import net.minecraft.server.level.ServerPlayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Profiles of online players keyed by UUID, so join/leave, chat and death handling don't have to
+ * look the registration up by name every time.
+ * <p>
+ * A profile is resolved on join and dropped on disconnect. RegistrationStore calls refresh() whenever
+ * a registration changes, so /register, /unregister and /visibility take effect straight away.
+ * Registrations are matched by UUID first, so a player who changes their Minecraft name keeps theirs.
+ */
+public class PlayerProfiles {
+    private static final Logger LOGGER = LoggerFactory.getLogger("CoopBot-Profiles");
+    private static final PlayerProfiles INSTANCE = new PlayerProfiles();
+
+    private final Map<UUID, PlayerProfile> profiles = new ConcurrentHashMap<>();
+
+    public static PlayerProfiles getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Server thread, on join.
+     */
+    public PlayerProfile join(ServerPlayer player) {
+        UUID uuid = player.getUUID();
+        String name = player.getName().getString();
+        RegistrationStore store = RegistrationStore.getInstance();
+
+        // First time we see this registration online, remember the UUID so renames keep matching.
+        // Done before taking our lock, linking takes the store's lock and that calls refresh()
+        RegisteredUser reg = resolve(store, uuid, name);
+        if (reg != null && reg.getMinecraftUuid() == null) {
+            store.linkUuid(reg.getMinecraftUsername(), uuid);
+        }
+
+        // Resolve and publish together so a concurrent refresh can't be overwritten with a stale profile
+        synchronized (this) {
+            PlayerProfile profile = new PlayerProfile(uuid, name, resolve(store, uuid, name));
+            profiles.put(uuid, profile);
+            return profile;
+        }
+    }
+
+    /**
+     * Server thread, on disconnect.
+     */
+    public PlayerProfile leave(UUID uuid) {
+        return profiles.remove(uuid);
+    }
+
+    /**
+     * Any thread, no allocation. Null if the player isn't online.
+     */
+    public PlayerProfile get(UUID uuid) {
+        return uuid == null ? null : profiles.get(uuid);
+    }
+
+    /**
+     * Re-resolves every online profile, called after any registration change.
+     */
+    public synchronized void refresh() {
+        RegistrationStore store = RegistrationStore.getInstance();
+        profiles.replaceAll((uuid, profile) -> {
+            RegisteredUser reg = resolve(store, uuid, profile.getName());
+            return reg == profile.getRegistration() ? profile : new PlayerProfile(uuid, profile.getName(), reg);
+        });
+        LOGGER.debug("Refreshed {} player profiles", profiles.size());
+    }
+
+    private static RegisteredUser resolve(RegistrationStore store, UUID uuid, String name) {
+        RegisteredUser reg = store.getByMinecraftUuid(uuid);
+        if (reg != null) return reg;
+
+        // A name registration already linked to another account belongs to whoever had the name before
+        reg = store.getByMinecraft(name);
+        if (reg != null && reg.getMinecraftUuid() != null && !reg.getMinecraftUuid().equals(uuid)) {
+            return null;
+        }
+        return reg;
+    }
+}
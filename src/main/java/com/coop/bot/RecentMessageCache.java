@@ -0,0 +1,80 @@
+package com.coop.bot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The last few hundred messages of the relay channel (author display name and content), so replies
+ * can show what they quote without asking Discord. Least recently used messages are dropped first.
+ * Shared by JDA's event threads, so every access takes the lock, which is only held for a map operation.
+ */
+public class RecentMessageCache {
+    public record Entry(String author, String content) {}
+
+    private final Map<Long, Entry> messages;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RecentMessageCache(int capacity) {
+        this.messages = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public Entry put(long messageId, String author, String content) {
+        Entry entry = new Entry(author, content);
+        synchronized (messages) {
+            messages.put(messageId, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Counts towards the hit rate.
+     */
+    public Entry get(long messageId) {
+        Entry entry;
+        synchronized (messages) {
+            entry = messages.get(messageId);
+        }
+        (entry != null ? hits : misses).increment();
+        return entry;
+    }
+
+    // Edited messages keep their place, messages we never saw aren't added
+    public void update(long messageId, String content) {
+        synchronized (messages) {
+            messages.computeIfPresent(messageId, (id, entry) -> new Entry(entry.author(), content));
+        }
+    }
+
+    public void remove(long messageId) {
+        synchronized (messages) {
+            messages.remove(messageId);
+        }
+    }
+
+    public int size() {
+        synchronized (messages) {
+            return messages.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -1,5 +1,6 @@
 package com.coop.bot;
 
+import com.coop.bot.config.JsonFileSaver;
 import com.coop.bot.objects.RegisteredUser;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -7,27 +8,64 @@ import com.google.gson.reflect.TypeToken;
 
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.lang.reflect.Type;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.UUID;
+
+/**
+ * Minecraft username <-> Discord account registrations.
+ * <p>
+ * Reads go through an immutable snapshot (lowercase name index + Discord id index) held in a volatile
+ * field, so the server thread and JDA threads look users up without locking. Writes are synchronized,
+ * build a new snapshot and publish it in one step. Users in a snapshot must not be modified, copy them
+ * with the RegisteredUser copy constructor and pass the copy to updateUser.
+ */
 public class RegistrationStore {
     private static final Path REG_PATH = Path.of("config", "coop-bot-registrations.json");
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static RegistrationStore instance;
 
-    private Map<String, RegisteredUser> registrations = new HashMap<>();
+    private record Snapshot(Map<String, RegisteredUser> byName, Map<String, RegisteredUser> byDiscordId,
+                            Map<UUID, RegisteredUser> byUuid) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of());
+
+        static Snapshot of(Map<String, RegisteredUser> registrations) {
+            Map<String, RegisteredUser> byName = new HashMap<>();
+            Map<String, RegisteredUser> byDiscordId = new HashMap<>();
+            Map<UUID, RegisteredUser> byUuid = new HashMap<>();
+            registrations.forEach((name, user) -> {
+                byName.put(name.toLowerCase(), user);
+                if (user.getDiscordId() != null) {
+                    // One Discord account can own several names, the first one seen wins
+                    byDiscordId.putIfAbsent(user.getDiscordId(), user);
+                }
+                if (user.getMinecraftUuid() != null) {
+                    byUuid.put(user.getMinecraftUuid(), user);
+                }
+            });
+            return new Snapshot(Collections.unmodifiableMap(byName), Collections.unmodifiableMap(byDiscordId),
+                    Collections.unmodifiableMap(byUuid));
+        }
+    }
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // Snapshots are immutable, so the saver can serialise the latest one from its own thread
+    private final JsonFileSaver saver = new JsonFileSaver(REG_PATH, GSON,
+            new TypeToken<Map<String, RegisteredUser>>(){}.getType(), () -> snapshot.byName(), 500);
 
     private RegistrationStore() {
         load();
     }
 
-    public static synchronized RegistrationStore getInstance() {
-        if (instance == null) instance = new RegistrationStore();
-        return instance;
+    // Loaded on first use, without locking every getInstance call
+    private static final class Holder {
+        static final RegistrationStore INSTANCE = new RegistrationStore();
+    }
+
+    public static RegistrationStore getInstance() {
+        return Holder.INSTANCE;
     }
 
     private void load() {
@@ -40,72 +78,93 @@ public class RegistrationStore {
         try (FileReader r = new FileReader(f)) {
             Type type = new TypeToken<Map<String, RegisteredUser>>(){}.getType();
             Map<String, RegisteredUser> map = GSON.fromJson(r, type);
-            if (map != null) registrations = map;
+            if (map != null) snapshot = Snapshot.of(map);
         } catch (Exception e) {
             System.err.println("[CoopBot] Failed to load registrations: " + e.getMessage());
-            registrations = new HashMap<>();
+            snapshot = Snapshot.EMPTY;
         }
     }
 
-    public synchronized void save() {
-        try {
-            File f = REG_PATH.toFile();
-            f.getParentFile().mkdirs();
-            try (FileWriter w = new FileWriter(f)) {
-                GSON.toJson(registrations, w);
-            }
-        } catch (Exception e) {
-            System.err.println("[CoopBot] Failed to save registrations: " + e.getMessage());
-        }
+    // Debounced and written in the background, many changes in a short window become one write
+    public void save() {
+        saver.requestSave();
     }
 
     public synchronized boolean register(String minecraftUsername, String discordId, String discordName, String avatarUrl) {
         String key = minecraftUsername.toLowerCase();
-        RegisteredUser existing = registrations.get(key);
+        RegisteredUser existing = snapshot.byName().get(key);
         if (existing != null && !existing.getDiscordId().equals(discordId)) {
             return false; // Already owned by another user
         }
 
         RegisteredUser user = new RegisteredUser(minecraftUsername, discordId, discordName, avatarUrl);
-        registrations.put(key, user);
+        if (existing != null) {
+            user.setMinecraftUuid(existing.getMinecraftUuid());
+        }
+        publish(key, user);
         save();
         return true;
     }
 
     public synchronized boolean unregister(String minecraftUsername, String discordId) {
         String key = minecraftUsername.toLowerCase();
-        RegisteredUser existing = registrations.get(key);
+        RegisteredUser existing = snapshot.byName().get(key);
         if (existing == null) return false;
         if (!existing.getDiscordId().equals(discordId)) return false;
-        registrations.remove(key);
+        publish(key, null);
         save();
         return true;
     }
 
     public RegisteredUser getByMinecraft(String minecraftUsername) {
         if (minecraftUsername == null) return null;
-        return registrations.get(minecraftUsername.toLowerCase());
+        return snapshot.byName().get(minecraftUsername.toLowerCase());
+    }
+
+    public RegisteredUser getByMinecraftUuid(UUID uuid) {
+        if (uuid == null) return null;
+        return snapshot.byUuid().get(uuid);
     }
 
     public RegisteredUser getByDiscordId(String discordId) {
         if (discordId == null) return null;
-        for (RegisteredUser user : registrations.values()) {
-            if (user.getDiscordId().equals(discordId)) {
-                return user;
-            }
-        }
-        return null;
+        return snapshot.byDiscordId().get(discordId);
     }
 
     public synchronized void updateUser(RegisteredUser user) {
         if (user == null || user.getMinecraftUsername() == null) return;
         String key = user.getMinecraftUsername().toLowerCase();
-        registrations.put(key, user);
+        publish(key, user);
+        save();
+    }
+
+    // Remembers which player a registration belongs to, so it still matches after a name change.
+    // Re-reads the entry under the lock, a copy read earlier could write back an unregister or toggle
+    public synchronized void linkUuid(String minecraftUsername, UUID uuid) {
+        String key = minecraftUsername.toLowerCase();
+        RegisteredUser current = snapshot.byName().get(key);
+        if (current == null || current.getMinecraftUuid() != null) return;
+
+        RegisteredUser linked = new RegisteredUser(current);
+        linked.setMinecraftUuid(uuid);
+        publish(key, linked);
         save();
     }
 
-    public synchronized Map<String, RegisteredUser> listAll() {
-        // Return a snapshot to avoid concurrent modification risks for callers iterating the map
-        return Collections.unmodifiableMap(new HashMap<>(registrations));
+    public Map<String, RegisteredUser> listAll() {
+        // Already immutable, callers can iterate it freely
+        return snapshot.byName();
+    }
+
+    // Copy-on-write, user == null removes the name. Caller holds the lock
+    private void publish(String key, RegisteredUser user) {
+        Map<String, RegisteredUser> next = new HashMap<>(snapshot.byName());
+        if (user == null) {
+            next.remove(key);
+        } else {
+            next.put(key, user);
+        }
+        snapshot = Snapshot.of(next);
+        PlayerProfiles.getInstance().refresh();
     }
 }
@@ -0,0 +1,88 @@
+package com.coop.bot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hierarchical timing wheel, three levels of 64 slots (1, 64 and 4096 ticks per slot, ~73 hours in total).
+ * <p>
+ * Deadlines are read from the items themselves when their slot comes round, so pushing a deadline back
+ * is free: the item is simply put back into a later slot instead of expiring. The same re-add moves items
+ * down a level as their deadline gets close. Not thread safe, owned by whoever calls advance.
+ */
+final class TimingWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 3;
+    private static final long MAX_SPAN = 1L << (BITS * LEVELS);
+
+    @SuppressWarnings("unchecked")
+    private final List<T>[][] wheels = new List[LEVELS][SLOTS];
+    private final ToLongFunction<T> deadlineOf;
+    // Swapped in for the slot being fired, so firing doesn't allocate
+    private List<T> spare = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long startTick, ToLongFunction<T> deadlineOf) {
+        this.currentTick = startTick;
+        this.deadlineOf = deadlineOf;
+        for (List<T>[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) wheel[i] = new ArrayList<>();
+        }
+    }
+
+    void add(T item) {
+        // Already due goes into the next slot, past the last level is capped and re-added when it comes round
+        long deadline = Math.max(deadlineOf.applyAsLong(item), currentTick + 1);
+        long delta = Math.min(deadline - currentTick, MAX_SPAN - 1);
+        int level = 0;
+        while (delta >= 1L << (BITS * (level + 1))) level++;
+        if (delta == MAX_SPAN - 1) deadline = currentTick + delta;
+        wheels[level][(int) (deadline >>> (BITS * level)) & MASK].add(item);
+        size++;
+    }
+
+    /**
+     * Moves time forward to now, handing every item whose deadline passed to expired.
+     */
+    void advance(long now, Consumer<T> expired) {
+        while (currentTick < now) {
+            long tick = ++currentTick;
+            // Higher levels first, so items cascading down land in a slot that is still to come
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (BITS * level)) - 1)) == 0) {
+                    fire(level, (int) (tick >>> (BITS * level)) & MASK, tick, expired);
+                }
+            }
+            fire(0, (int) tick & MASK, tick, expired);
+        }
+    }
+
+    private void fire(int level, int slot, long tick, Consumer<T> expired) {
+        List<T> items = wheels[level][slot];
+        if (items.isEmpty()) return;
+        wheels[level][slot] = spare;
+        size -= items.size();
+        for (T item : items) {
+            if (deadlineOf.applyAsLong(item) <= tick) {
+                expired.accept(item);
+            } else {
+                add(item);
+            }
+        }
+        items.clear();
+        spare = items;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+}
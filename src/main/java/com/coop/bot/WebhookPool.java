@@ -0,0 +1,123 @@
+package com.coop.bot;
+
+import com.coop.bot.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * Several webhooks for the same channel, used together to get past the per-webhook rate limit.
+ * <p>
+ * Each send goes to the webhook with the most rate limit budget left (round-robin between equals).
+ * Sends are serialised per player through the OrderedDispatcher, so the next message is only handed to
+ * a webhook after the previous one finished, which keeps each player's chat in order even when it
+ * spans webhooks. Different players send in parallel.
+ * Webhooks that answer 401/404 are removed from the pool.
+ */
+public class WebhookPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger("Chicken-Bot");
+
+    private final List<DiscordWebhook> webhooks = new CopyOnWriteArrayList<>();
+    // Every webhook ever in the pool, so totals don't go backwards when a dead one is removed
+    private final List<DiscordWebhook> allWebhooks;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final OrderedDispatcher dispatcher;
+
+    public WebhookPool(List<String> webhookUrls, int maxInFlight, int maxQueued, OrderedDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        for (String url : webhookUrls) {
+            webhooks.add(new DiscordWebhook(url, maxInFlight, maxQueued));
+        }
+        allWebhooks = List.copyOf(webhooks);
+        LOGGER.info("Using {} webhook(s) for chat relay", webhooks.size());
+
+        MetricRegistry metrics = MetricRegistry.getInstance();
+        metrics.gauge("coopbot_webhook_queue_depth", "Chat messages waiting for a webhook", () -> sum(DiscordWebhook::getQueueDepth));
+        metrics.gauge("coopbot_webhook_in_flight", "Webhook requests waiting for Discord", () -> sum(DiscordWebhook::getInFlight));
+        metrics.gauge("coopbot_webhooks_alive", "Webhooks still usable", webhooks::size);
+        metrics.counter("coopbot_webhook_sent_total", "Chat messages delivered by webhook", () -> sum(DiscordWebhook::getSent));
+        metrics.counter("coopbot_send_failures_total", "Sends Discord did not accept", () -> sum(DiscordWebhook::getFailed), "via", "webhook");
+        metrics.counter("coopbot_webhook_dropped_total", "Chat messages dropped because a webhook queue was full", () -> sum(DiscordWebhook::getDropped));
+    }
+
+    /**
+     * Never blocks. Messages with the same orderingKey are delivered in the order they were sent.
+     */
+    public CompletableFuture<Boolean> send(String orderingKey, String content, String username, String avatarUrl) {
+        // Blocks a virtual thread until Discord answered, holding back only this player's next message
+        return dispatcher.submit("webhook:" + orderingKey, () -> sendToBest(content, username, avatarUrl, true).join());
+    }
+
+    private CompletableFuture<Boolean> sendToBest(String content, String username, String avatarUrl, boolean retryOnDead) {
+        DiscordWebhook webhook = pick();
+        if (webhook == null) {
+            LOGGER.error("No working chat webhooks left, dropping message");
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return webhook.sendAsync(content, username, avatarUrl).thenCompose(ok -> {
+            if (!ok && webhook.isDead()) {
+                webhooks.remove(webhook);
+                // Give the message one more go on another webhook
+                if (retryOnDead) {
+                    return sendToBest(content, username, avatarUrl, false);
+                }
+            }
+            return CompletableFuture.completedFuture(ok);
+        });
+    }
+
+    private DiscordWebhook pick() {
+        DiscordWebhook best = null;
+        int bestBudget = Integer.MIN_VALUE;
+        int size = webhooks.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), Math.max(1, size));
+
+        for (int i = 0; i < size; i++) {
+            DiscordWebhook webhook;
+            try {
+                webhook = webhooks.get((start + i) % size);
+            } catch (IndexOutOfBoundsException e) {
+                break; // A dead webhook was removed while we were looking
+            }
+            if (webhook.isDead()) {
+                webhooks.remove(webhook);
+                continue;
+            }
+            int budget = webhook.getFreeBudget();
+            if (budget > bestBudget) {
+                best = webhook;
+                bestBudget = budget;
+            }
+        }
+        return best;
+    }
+
+    private long sum(ToLongFunction<DiscordWebhook> stat) {
+        long total = 0;
+        for (DiscordWebhook webhook : allWebhooks) total += stat.applyAsLong(webhook);
+        return total;
+    }
+
+    public int size() {
+        return webhooks.size();
+    }
+
+    public List<DiscordWebhook> getWebhooks() {
+        return List.copyOf(webhooks);
+    }
+
+    public String getStatsSummary() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < webhooks.size(); i++) {
+            if (i > 0) sb.append("; ");
+            sb.append('#').append(i).append(' ').append(webhooks.get(i).getStatsSummary());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package com.coop.bot.config;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Debounced write-behind saving of a JSON file.
+ * <p>
+ * requestSave() only marks the file dirty, the write happens on a background thread once the
+ * debounce delay has passed, so a burst of changes becomes one write. The current value is taken
+ * from the supplier at write time, so it must return something safe to read from another thread.
+ * Files are streamed to a temp file next to the target and then renamed over it, so a crash
+ * mid-write leaves the previous file intact.
+ */
+public class JsonFileSaver {
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "CoopBot-Saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final List<JsonFileSaver> SAVERS = new CopyOnWriteArrayList<>();
+
+    private final Path path;
+    private final Gson gson;
+    private final Type type;
+    private final Supplier<Object> value;
+    private final long debounceMs;
+    private final Object writeLock = new Object();
+    private boolean scheduled;
+
+    public JsonFileSaver(Path path, Gson gson, Type type, Supplier<Object> value, long debounceMs) {
+        this.path = path;
+        this.gson = gson;
+        this.type = type;
+        this.value = value;
+        this.debounceMs = debounceMs;
+        SAVERS.add(this);
+    }
+
+    /**
+     * Any thread, returns immediately.
+     */
+    public synchronized void requestSave() {
+        if (scheduled) return;
+        scheduled = true;
+        EXECUTOR.schedule(this::saveIfScheduled, debounceMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes now on the calling thread if a save is pending.
+     */
+    public void flush() {
+        saveIfScheduled();
+    }
+
+    /**
+     * Flushes every saver, call on shutdown.
+     */
+    public static void flushAll() {
+        for (JsonFileSaver saver : SAVERS) {
+            saver.flush();
+        }
+    }
+
+    private void saveIfScheduled() {
+        synchronized (this) {
+            if (!scheduled) return;
+            scheduled = false;
+        }
+        // Serialised outside the lock, a change landing now schedules another save
+        write();
+    }
+
+    private void write() {
+        // Only one write at a time per file, the flush and the background thread can race.
+        // Separate from the scheduling lock so requestSave never waits on disk
+        synchronized (writeLock) {
+            writeFile();
+        }
+    }
+
+    private void writeFile() {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8);
+                 JsonWriter json = gson.newJsonWriter(writer)) {
+                gson.toJson(value.get(), type, json);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("[CoopBot] Failed to save " + path + ": " + e.getMessage());
+        }
+    }
+}
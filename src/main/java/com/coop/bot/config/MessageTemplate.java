@@ -0,0 +1,96 @@
+package com.coop.bot.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A config format string like "{player} joined the server." compiled once into literal segments and
+ * placeholder slots. Rendering sizes a StringBuilder from the literal length plus the values, so it
+ * never grows. No buffer is kept per thread, Discord -> Minecraft renders on short-lived virtual threads.
+ * <p>
+ * Placeholders are given by name when compiling and values are passed to render in the same order.
+ * Anything in braces that isn't one of them is left as text and reported once, at load.
+ */
+public final class MessageTemplate {
+    private final String source;
+    // literals[i] comes before slots[i], the last literal comes after the last placeholder
+    private final String[] literals;
+    private final int[] slots;
+    private final int literalLength;
+
+    private MessageTemplate(String source, String[] literals, int[] slots) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) length += literal.length();
+        this.literalLength = length;
+    }
+
+    public static MessageTemplate compile(String name, String format, String... placeholders) {
+        if (format == null) format = "";
+
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i);
+            int close = c == '{' ? format.indexOf('}', i + 1) : -1;
+            if (close == -1) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            String placeholder = format.substring(i + 1, close);
+            int slot = Arrays.asList(placeholders).indexOf(placeholder);
+            if (slot == -1) {
+                System.err.println("[CoopBot] Unknown placeholder {" + placeholder + "} in " + name
+                        + ", expected one of " + Arrays.toString(placeholders));
+                literal.append(format, i, close + 1);
+            } else {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(slot);
+            }
+            i = close + 1;
+        }
+        literals.add(literal.toString());
+
+        return new MessageTemplate(format, literals.toArray(new String[0]),
+                slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Values in the order the placeholders were given to compile, nulls render as "".
+     */
+    public String render(String... values) {
+        if (slots.length == 0) return literals[0];
+
+        int length = literalLength;
+        for (int slot : slots) {
+            String value = values[slot];
+            if (value != null) length += value.length();
+        }
+
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < slots.length; i++) {
+            sb.append(literals[i]);
+            String value = values[slots[i]];
+            if (value != null) sb.append(value);
+        }
+        sb.append(literals[slots.length]);
+        return sb.toString();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
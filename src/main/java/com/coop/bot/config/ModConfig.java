@@ -4,9 +4,14 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ModConfig {
     // Configuration values with defaults
@@ -17,12 +22,62 @@ public class ModConfig {
     private String chatMessageFormat = "\uD83D\uDC72 {player}: {message}";
     private String discordChannelId = "";
     private String discordMobChannelId = "";
-    private String discordToMinecraftFormat = "[Discord] {user}: {message}";
+    private String discordToMinecraftFormat = DISCORD_TO_MINECRAFT_DEFAULT;
+    private String discordReplyFormat = "§9[Discord] §7{user} §8(↩ {replyUser})§7: §f{message}";
+    private String farmingNotificationFormat = "<:brasovpog:1411341162111045632> It seems {player} is farming {mob}s";
+    private String farmingSummaryFormat = "<:brasovpog:1411341162111045632> **Farming Complete**\n{summary}";
+    private String hotspotNotificationFormat = "<:brasovpog:1411341162111045632> It seems something is farming {mob}s at {location}";
     private String discordWebhookUrl = "";
+    private List<String> discordWebhookUrls = new ArrayList<>(); // extra webhooks for the same channel
+    private int deathHistoryMemoryKb = 16384; // ~190k deaths
+    private int deathQueueSize = 4096;
+    private long discordCoalesceWindowMs = 1000; // 0 = send every message on its own
+    private int webhookMaxInFlight = 4;
+    private int webhookMaxQueued = 100;
+    private boolean deathJournalEnabled = true;
+    private int deathJournalMaxSegments = 8; // 16 MB each
+    private int metricsPort = 0; // 0 = off
+    // post / track (history and stats only) / ignore, see DeathFilter
+    private String deathFilterDefault = "post";
+    private String deathFilterPlayers = "post";
+    private String deathFilterBosses = "post";
+    private String deathFilterNamedMobs = "post";
+    private String deathFilterTamedPets = "post";
+    private Map<String, String> deathFilterMobs = defaultDeathFilterMobs();
 
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private static final Path CONFIG_PATH = Path.of("config", "coop-bot.json");
+    private transient JsonFileSaver saver;
+
+    // The old default was never actually used, messages were always sent in the coloured form below
+    private static final String OLD_DISCORD_TO_MINECRAFT_DEFAULT = "[Discord] {user}: {message}";
+    private static final String DISCORD_TO_MINECRAFT_DEFAULT = "§9[Discord] §7{user}: §f{message}";
+
+    // Compiled from the formats above on load
+    private transient MessageTemplate joinTemplate;
+    private transient MessageTemplate leaveTemplate;
+    private transient MessageTemplate deathTemplate;
+    private transient MessageTemplate chatTemplate;
+    private transient MessageTemplate discordToMinecraftTemplate;
+    private transient MessageTemplate discordReplyTemplate;
+    private transient MessageTemplate farmingNotificationTemplate;
+    private transient MessageTemplate farmingSummaryTemplate;
+    private transient MessageTemplate hotspotNotificationTemplate;
+
+    private static Map<String, String> defaultDeathFilterMobs() {
+        Map<String, String> mobs = new LinkedHashMap<>();
+        mobs.put("minecraft:bat", "ignore");
+        for (String fish : List.of("cod", "salmon", "tropical_fish", "pufferfish", "squid", "glow_squid")) {
+            mobs.put("minecraft:" + fish, "track");
+        }
+        return mobs;
+    }
+
+    // Defaults compile straight away so a config that didn't come from load() (e.g. in benchmarks) still works
+    public ModConfig() {
+        compileTemplates();
+    }
 
     public static ModConfig load() {
         File configFile = CONFIG_PATH.toFile();
@@ -41,21 +96,34 @@ public class ModConfig {
             System.out.println("[CoopBot] Config file not found, using defaults");
         }
 
+        if (OLD_DISCORD_TO_MINECRAFT_DEFAULT.equals(config.discordToMinecraftFormat)) {
+            config.discordToMinecraftFormat = DISCORD_TO_MINECRAFT_DEFAULT;
+        }
+        config.compileTemplates();
+
         config.save(); // Creates file if it doesn't exist
         return config;
     }
 
-    public void save() {
-        try {
-            File configFile = CONFIG_PATH.toFile();
-            configFile.getParentFile().mkdirs();
+    // Placeholder order here is the argument order for render()
+    private void compileTemplates() {
+        joinTemplate = MessageTemplate.compile("joinMessageFormat", joinMessageFormat, "player");
+        leaveTemplate = MessageTemplate.compile("leaveMessageFormat", leaveMessageFormat, "player");
+        deathTemplate = MessageTemplate.compile("deathMessageFormat", deathMessageFormat, "message", "coords");
+        chatTemplate = MessageTemplate.compile("chatMessageFormat", chatMessageFormat, "player", "message");
+        discordToMinecraftTemplate = MessageTemplate.compile("discordToMinecraftFormat", discordToMinecraftFormat, "user", "message");
+        discordReplyTemplate = MessageTemplate.compile("discordReplyFormat", discordReplyFormat, "user", "replyUser", "message");
+        farmingNotificationTemplate = MessageTemplate.compile("farmingNotificationFormat", farmingNotificationFormat, "player", "mob");
+        farmingSummaryTemplate = MessageTemplate.compile("farmingSummaryFormat", farmingSummaryFormat, "summary");
+        hotspotNotificationTemplate = MessageTemplate.compile("hotspotNotificationFormat", hotspotNotificationFormat, "mob", "location");
+    }
 
-            try (FileWriter writer = new FileWriter(configFile)) {
-                GSON.toJson(this, writer);
-            }
-        } catch (IOException e) {
-            System.err.println("[CoopBot] Failed to save config: " + e.getMessage());
+    // Written in the background, see JsonFileSaver
+    public synchronized void save() {
+        if (saver == null) {
+            saver = new JsonFileSaver(CONFIG_PATH, GSON, ModConfig.class, () -> this, 500);
         }
+        saver.requestSave();
     }
 
     // Getters
@@ -67,5 +135,46 @@ public class ModConfig {
     public String getDiscordChannelId() { return discordChannelId; }
     public String getDiscordMobChannelId() { return discordMobChannelId; }
     public String getDiscordToMinecraftFormat() { return discordToMinecraftFormat; }
+    public String getDiscordReplyFormat() { return discordReplyFormat; }
+    public String getFarmingNotificationFormat() { return farmingNotificationFormat; }
+    public String getFarmingSummaryFormat() { return farmingSummaryFormat; }
+    public String getHotspotNotificationFormat() { return hotspotNotificationFormat; }
     public String getDiscordWebhookUrl() { return discordWebhookUrl; }
-}
\ No newline at end of file
+
+    // discordWebhookUrl followed by discordWebhookUrls, without blanks or duplicates
+    public List<String> getDiscordWebhookUrls() {
+        Set<String> urls = new LinkedHashSet<>();
+        if (discordWebhookUrl != null && !discordWebhookUrl.isBlank()) urls.add(discordWebhookUrl.trim());
+        if (discordWebhookUrls != null) {
+            for (String url : discordWebhookUrls) {
+                if (url != null && !url.isBlank()) urls.add(url.trim());
+            }
+        }
+        return new ArrayList<>(urls);
+    }
+    public int getDeathHistoryMemoryKb() { return deathHistoryMemoryKb; }
+    public int getDeathQueueSize() { return deathQueueSize; }
+    public long getDiscordCoalesceWindowMs() { return discordCoalesceWindowMs; }
+    public int getWebhookMaxInFlight() { return webhookMaxInFlight; }
+    public int getWebhookMaxQueued() { return webhookMaxQueued; }
+    public boolean isDeathJournalEnabled() { return deathJournalEnabled; }
+    public int getDeathJournalMaxSegments() { return deathJournalMaxSegments; }
+    public int getMetricsPort() { return metricsPort; }
+    public String getDeathFilterDefault() { return deathFilterDefault; }
+    public String getDeathFilterPlayers() { return deathFilterPlayers; }
+    public String getDeathFilterBosses() { return deathFilterBosses; }
+    public String getDeathFilterNamedMobs() { return deathFilterNamedMobs; }
+    public String getDeathFilterTamedPets() { return deathFilterTamedPets; }
+    public Map<String, String> getDeathFilterMobs() { return deathFilterMobs != null ? deathFilterMobs : Map.of(); }
+
+    // Templates, see MessageTemplate
+    public MessageTemplate getJoinTemplate() { return joinTemplate; }
+    public MessageTemplate getLeaveTemplate() { return leaveTemplate; }
+    public MessageTemplate getDeathTemplate() { return deathTemplate; }
+    public MessageTemplate getChatTemplate() { return chatTemplate; }
+    public MessageTemplate getDiscordToMinecraftTemplate() { return discordToMinecraftTemplate; }
+    public MessageTemplate getDiscordReplyTemplate() { return discordReplyTemplate; }
+    public MessageTemplate getFarmingNotificationTemplate() { return farmingNotificationTemplate; }
+    public MessageTemplate getFarmingSummaryTemplate() { return farmingSummaryTemplate; }
+    public MessageTemplate getHotspotNotificationTemplate() { return hotspotNotificationTemplate; }
+}
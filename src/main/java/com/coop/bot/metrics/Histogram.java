@@ -0,0 +1,66 @@
+package com.coop.bot.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution in fixed buckets (seconds), recorded without locks.
+ */
+public final class Histogram {
+    // Upper bounds in seconds, from 100µs (server thread callbacks) to 10s (slow Discord sends)
+    static final double[] BUCKETS = {0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+            0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS.length + 1]; // last = +Inf
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    Histogram() {
+        for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+    }
+
+    public void observeNanos(long nanos) {
+        double seconds = nanos / 1e9;
+        int bucket = 0;
+        while (bucket < BUCKETS.length && seconds > BUCKETS[bucket]) bucket++;
+        counts[bucket].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    public void observeMillis(long millis) {
+        observeNanos(millis * 1_000_000L);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    // Not cumulative, index BUCKETS.length is +Inf
+    long[] bucketCounts() {
+        long[] result = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) result[i] = counts[i].sum();
+        return result;
+    }
+
+    /**
+     * Upper bound of the bucket the quantile falls in, in seconds. Infinity if it is past the last bucket.
+     */
+    public double quantileUpperBound(double quantile) {
+        long[] buckets = bucketCounts();
+        long total = 0;
+        for (long bucket : buckets) total += bucket;
+        if (total == 0) return 0;
+
+        long target = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) return i < BUCKETS.length ? BUCKETS[i] : Double.POSITIVE_INFINITY;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,177 @@
+package com.coop.bot.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * All of CoopBot's metrics, rendered in Prometheus text format for MetricsServer and as a short
+ * summary for /metrics.
+ * <p>
+ * Metrics are registered once (usually into a static final field) and then updated lock-free.
+ * Asking for the same name and labels again returns the existing metric. Labels are given as
+ * alternating key / value strings. Gauges and counter functions read a value that some other
+ * class already keeps, at scrape time, so nothing is counted twice.
+ */
+public final class MetricRegistry {
+    private static final MetricRegistry INSTANCE = new MetricRegistry();
+
+    private enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    private record Series(String labels, Object metric) {}
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final Type type;
+        final Map<String, Series> series = new LinkedHashMap<>();
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    // Guarded by this, only touched on registration and scrape
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    public static MetricRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) register(name, help, Type.COUNTER, labels, Counter::new);
+    }
+
+    // A counter whose value is already kept somewhere else
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        register(name, help, Type.COUNTER, labels, () -> value);
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        register(name, help, Type.GAUGE, labels, () -> value);
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) register(name, help, Type.HISTOGRAM, labels, Histogram::new);
+    }
+
+    private synchronized Object register(String name, String help, Type type, String[] labels,
+                                         Supplier<Object> factory) {
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        String key = formatLabels(labels);
+        Series existing = family.series.get(key);
+        // Functions are replaced, so a restarted component reports its new instance
+        if (existing != null && !(existing.metric() instanceof LongSupplier) && !(existing.metric() instanceof DoubleSupplier)) {
+            return existing.metric();
+        }
+        Object metric = factory.get();
+        family.series.put(key, new Series(key, metric));
+        return metric;
+    }
+
+    private static String formatLabels(String[] labels) {
+        if (labels.length == 0) return "";
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("Labels must be key/value pairs");
+
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    // ----------
+    // Output
+    // ----------
+
+    /**
+     * Prometheus text exposition format 0.0.4.
+     */
+    public synchronized String toPrometheus() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Family family : families.values()) {
+            sb.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            sb.append("# TYPE ").append(family.name).append(' ').append(family.type.name().toLowerCase(Locale.ROOT)).append('\n');
+            for (Series series : family.series.values()) {
+                if (series.metric() instanceof Histogram histogram) {
+                    writeHistogram(sb, family.name, series.labels(), histogram);
+                } else {
+                    sb.append(family.name).append(series.labels()).append(' ')
+                            .append(format(value(series.metric()))).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void writeHistogram(StringBuilder sb, String name, String labels, Histogram histogram) {
+        long[] buckets = histogram.bucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i];
+            String le = i < Histogram.BUCKETS.length ? format(Histogram.BUCKETS[i]) : "+Inf";
+            sb.append(name).append("_bucket").append(withLabel(labels, "le", le)).append(' ').append(cumulative).append('\n');
+        }
+        sb.append(name).append("_sum").append(labels).append(' ').append(format(histogram.getSumSeconds())).append('\n');
+        sb.append(name).append("_count").append(labels).append(' ').append(cumulative).append('\n');
+    }
+
+    private static String withLabel(String labels, String key, String value) {
+        String label = key + "=\"" + value + "\"";
+        return labels.isEmpty() ? "{" + label + "}" : labels.substring(0, labels.length() - 1) + "," + label + "}";
+    }
+
+    /**
+     * One line per series, histograms as count / average / p99, for the /metrics command.
+     */
+    public synchronized List<String> summaryLines() {
+        List<String> lines = new ArrayList<>();
+        for (Family family : families.values()) {
+            String shortName = family.name.startsWith("coopbot_") ? family.name.substring(8) : family.name;
+            for (Series series : family.series.values()) {
+                String name = shortName + series.labels();
+                if (series.metric() instanceof Histogram histogram) {
+                    long count = histogram.getCount();
+                    if (count == 0) continue;
+                    double p99 = histogram.quantileUpperBound(0.99);
+                    lines.add(String.format(Locale.ROOT, "%s n=%d avg=%.2fms p99<=%s", name, count,
+                            histogram.getSumSeconds() * 1000 / count,
+                            Double.isInfinite(p99) ? "inf" : format(p99 * 1000) + "ms"));
+                } else {
+                    lines.add(name + " " + format(value(series.metric())));
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static double value(Object metric) {
+        try {
+            if (metric instanceof Counter counter) return counter.get();
+            if (metric instanceof LongSupplier supplier) return supplier.getAsLong();
+            if (metric instanceof DoubleSupplier supplier) return supplier.getAsDouble();
+        } catch (Exception e) {
+            // A component that's shutting down, report nothing rather than failing the scrape
+        }
+        return Double.NaN;
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+}
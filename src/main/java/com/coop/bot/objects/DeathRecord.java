@@ -1,8 +1,8 @@
     package com.coop.bot.objects;
 
+    import net.minecraft.network.chat.Component;
     import net.minecraft.world.entity.EntityType;
 
-    import java.time.Instant;
     import java.util.UUID;
 
     public class DeathRecord {
@@ -11,7 +11,11 @@
         private final EntityType<?> entityType;
         private final long timestamp;
         private final String dimension;
-        private final String deathMessage;
+        // Captured on the server thread, only turned into a String if the death is posted
+        private final Component deathMessageComponent;
+        // Rendered / formatted on first use. Racy but harmless, any thread computes the same String.
+        private String deathMessage;
+        private String deathLocation;
         private final String damageSource;
         private final String killerName;
         private final UUID killerUUID;
@@ -19,6 +23,8 @@
         private final double deathX;
         private final double deathY;
         private final double deathZ;
+        private final boolean playerDeath;
+        private final boolean post;
 
         /**
          * Builder
@@ -34,12 +40,16 @@
             private UUID killerUUID;
             private EntityType<?> killerType;
             private String deathMessage;
+            private Component deathMessageComponent;
             private double deathX;
             private double deathY;
             private double deathZ;
 
             // Optional
             private String damageSource = "";
+            private long timestamp; // 0 = now
+            private boolean playerDeath;
+            private boolean post = true; // false = recorded but never posted, see DeathFilter
 
             public Builder() {
             }
@@ -79,11 +89,33 @@
                 return this;
             }
 
+            // Rendered lazily by getDeathMessage, null renders as "died"
+            public Builder deathMessage(Component deathMessage) {
+                this.deathMessageComponent = deathMessage;
+                if (deathMessage == null) this.deathMessage = "died";
+                return this;
+            }
+
             public Builder damageSource(String damageSource) {
                 this.damageSource = damageSource;
                 return this;
             }
 
+            public Builder playerDeath(boolean playerDeath) {
+                this.playerDeath = playerDeath;
+                return this;
+            }
+
+            public Builder post(boolean post) {
+                this.post = post;
+                return this;
+            }
+
+            public Builder timestamp(long epochSecond) {
+                this.timestamp = epochSecond;
+                return this;
+            }
+
             public Builder deathLocation(double x, double y, double z, String dimension) {
                 this.deathX = x;
                 this.deathY = y;
@@ -110,9 +142,10 @@
             this.entityUUID = builder.entityUUID;
             this.entityName = builder.entityName;
             this.entityType = builder.entityType;
-            this.timestamp = Instant.now().getEpochSecond();
+            this.timestamp = builder.timestamp != 0 ? builder.timestamp : System.currentTimeMillis() / 1000;
             this.dimension = builder.dimension;
             this.deathMessage = builder.deathMessage;
+            this.deathMessageComponent = builder.deathMessageComponent;
             this.damageSource = builder.damageSource; // ,aybe drop this
             this.killerName = builder.killerName;
             this.killerUUID = builder.killerUUID;
@@ -120,6 +153,8 @@
             this.deathX = builder.deathX;
             this.deathY = builder.deathY;
             this.deathZ = builder.deathZ;
+            this.playerDeath = builder.playerDeath;
+            this.post = builder.post;
         }
 
         // Getters
@@ -128,7 +163,15 @@
         public EntityType<?> getEntityType() { return entityType; }
         public long getTimestamp() { return timestamp; }
         public String getDimension() { return dimension; }
-        public String getDeathMessage() { return deathMessage; }
+        public String getDeathMessage() {
+            String message = deathMessage;
+            if (message == null && deathMessageComponent != null) {
+                message = deathMessageComponent.getString();
+                deathMessage = message;
+            }
+            return message;
+        }
+
         public String getDamageSource() { return damageSource; }
         public String getKillerName() { return killerName; }
         public UUID getKillerUUID() { return killerUUID; }
@@ -136,13 +179,20 @@
         public double getDeathX() { return deathX; }
         public double getDeathY() { return deathY; }
         public double getDeathZ() { return deathZ; }
+        public boolean isPlayerDeath() { return playerDeath; }
+        public boolean isPost() { return post; }
 
         public String getDeathLocation() {
-            return String.format(" at [%.0f, %.0f, %.0f] in %s",
-                    this.getDeathX(),
-                    this.getDeathY(),
-                    this.getDeathZ(),
-                    this.getDimension());
+            String location = deathLocation;
+            if (location == null) {
+                location = String.format(" at [%.0f, %.0f, %.0f] in %s",
+                        this.getDeathX(),
+                        this.getDeathY(),
+                        this.getDeathZ(),
+                        this.getDimension());
+                deathLocation = location;
+            }
+            return location;
         }
 
         @Override
@@ -153,7 +203,7 @@
                     ", entityType=" + entityType +
                     ", timestamp=" + timestamp +
                     ", dimension='" + dimension + '\'' +
-                    ", deathMessage='" + deathMessage + '\'' +
+                    ", deathMessage='" + getDeathMessage() + '\'' +
                     ", damageSource='" + damageSource + '\'' +
                     ", killerName='" + killerName + '\'' +
                     ", killerUUID=" + killerUUID +
@@ -161,6 +211,7 @@
                     ", deathX=" + deathX +
                     ", deathY=" + deathY +
                     ", deathZ=" + deathZ +
+                    ", playerDeath=" + playerDeath +
                     '}';
         }
     }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.coop.bot.objects;
+
+import java.util.UUID;
+
+/**
+ * What the hot paths need to know about an online player, resolved once when they join.
+ * Immutable, a changed registration produces a new profile.
+ */
+public class PlayerProfile {
+    public static final int SHOW_JOIN_LEAVE = 1;
+    public static final int SHOW_CHAT = 1 << 1;
+    public static final int SHOW_DEATHS = 1 << 2;
+    private static final int SHOW_ALL = SHOW_JOIN_LEAVE | SHOW_CHAT | SHOW_DEATHS;
+
+    private final UUID uuid;
+    private final String name;
+    private final String orderingKey;
+    private final RegisteredUser registration;
+    private final int visibility;
+    private final String displayName;
+    private final String avatarUrl;
+
+    public PlayerProfile(UUID uuid, String name, RegisteredUser registration) {
+        this.uuid = uuid;
+        this.name = name;
+        // Webhook sends for one player stay in order under this key
+        this.orderingKey = name.toLowerCase();
+        this.registration = registration;
+
+        if (registration != null) {
+            this.visibility = (registration.isShowJoinLeave() ? SHOW_JOIN_LEAVE : 0)
+                    | (registration.isShowChat() ? SHOW_CHAT : 0)
+                    | (registration.isShowDeaths() ? SHOW_DEATHS : 0);
+            this.displayName = registration.getDiscordName();
+            this.avatarUrl = registration.getAvatarUrl();
+        } else {
+            // Unregistered players are always shown, under their Minecraft name
+            this.visibility = SHOW_ALL;
+            this.displayName = name;
+            this.avatarUrl = null;
+        }
+    }
+
+    public UUID getUuid() { return uuid; }
+    public String getName() { return name; }
+    public String getOrderingKey() { return orderingKey; }
+    public RegisteredUser getRegistration() { return registration; }
+    public boolean isRegistered() { return registration != null; }
+    public String getDisplayName() { return displayName; }
+    public String getAvatarUrl() { return avatarUrl; }
+
+    public boolean isShowJoinLeave() { return (visibility & SHOW_JOIN_LEAVE) != 0; }
+    public boolean isShowChat() { return (visibility & SHOW_CHAT) != 0; }
+    public boolean isShowDeaths() { return (visibility & SHOW_DEATHS) != 0; }
+}
@@ -1,10 +1,14 @@
 package com.coop.bot.objects;
 
+import java.util.UUID;
+
 public class RegisteredUser {
     private String minecraftUsername;
     private String discordId;
     private String discordName;
     private String avatarUrl;
+    // Set the first time the player joins after registering, null until then
+    private UUID minecraftUuid;
     
     // Visibility settings (default to true for backward compatibility)
     private boolean showJoinLeave = true;
@@ -25,10 +29,23 @@ public class RegisteredUser {
         this.showDeaths = true;
     }
 
+    // Copy for editing, users held by RegistrationStore are shared between threads and must not change
+    public RegisteredUser(RegisteredUser other) {
+        this.minecraftUsername = other.minecraftUsername;
+        this.discordId = other.discordId;
+        this.discordName = other.discordName;
+        this.avatarUrl = other.avatarUrl;
+        this.minecraftUuid = other.minecraftUuid;
+        this.showJoinLeave = other.showJoinLeave;
+        this.showChat = other.showChat;
+        this.showDeaths = other.showDeaths;
+    }
+
     public String getMinecraftUsername() { return minecraftUsername; }
     public String getDiscordId() { return discordId; }
     public String getDiscordName() { return discordName; }
     public String getAvatarUrl() { return avatarUrl; }
+    public UUID getMinecraftUuid() { return minecraftUuid; }
     public boolean isShowJoinLeave() { return showJoinLeave; }
     public boolean isShowChat() { return showChat; }
     public boolean isShowDeaths() { return showDeaths; }
@@ -37,6 +54,7 @@ public class RegisteredUser {
     public void setDiscordId(String discordId) { this.discordId = discordId; }
     public void setDiscordName(String discordName) { this.discordName = discordName; }
     public void setAvatarUrl(String avatarUrl) { this.avatarUrl = avatarUrl; }
+    public void setMinecraftUuid(UUID minecraftUuid) { this.minecraftUuid = minecraftUuid; }
     public void setShowJoinLeave(boolean showJoinLeave) { this.showJoinLeave = showJoinLeave; }
     public void setShowChat(boolean showChat) { this.showChat = showChat; }
     public void setShowDeaths(boolean showDeaths) { this.showDeaths = showDeaths; }
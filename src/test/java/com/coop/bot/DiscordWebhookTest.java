@@ -0,0 +1,207 @@
+package com.coop.bot;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DiscordWebhook against a local stand-in for Discord's webhook endpoint. Each path is one webhook,
+ * it answers with the scripted responses in order (then 204s) and records when each request arrived.
+ */
+class DiscordWebhookTest {
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private HttpServer server;
+    private final Map<String, Script> scripts = new ConcurrentHashMap<>();
+
+    private record Reply(int status, Map<String, String> headers) {}
+
+    private static final class Script {
+        final ArrayDeque<Reply> replies = new ArrayDeque<>();
+        final List<Long> arrivals = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch hold;
+
+        synchronized Reply next() {
+            Reply reply = replies.pollFirst();
+            return reply != null ? reply : new Reply(204, Map.of());
+        }
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Script script = scripts.computeIfAbsent(exchange.getRequestURI().getPath(), path -> new Script());
+        script.arrivals.add(System.nanoTime());
+        exchange.getRequestBody().readAllBytes();
+        CountDownLatch hold = script.hold;
+        if (hold != null) {
+            try {
+                hold.await(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Reply reply = script.next();
+        reply.headers().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+        if (reply.status() == 204) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(reply.status(), body.length);
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+
+    private Script script(String path, Reply... replies) {
+        Script script = scripts.computeIfAbsent(path, p -> new Script());
+        script.replies.addAll(List.of(replies));
+        return script;
+    }
+
+    private DiscordWebhook webhook(String path) {
+        return new DiscordWebhook("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private static boolean send(DiscordWebhook webhook, String content) throws Exception {
+        return webhook.sendAsync(content, null, null).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static long gapMs(Script script, int from, int to) {
+        return TimeUnit.NANOSECONDS.toMillis(script.arrivals.get(to) - script.arrivals.get(from));
+    }
+
+    @Test
+    void emptyBucketDelaysTheNextSendUntilReset() throws Exception {
+        Script script = script("/bucket",
+                new Reply(204, Map.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset-After", "0.6")));
+        DiscordWebhook webhook = webhook("/bucket");
+
+        assertTrue(send(webhook, "first"));
+        assertTrue(send(webhook, "second"));
+
+        assertEquals(2, script.arrivals.size());
+        assertTrue(gapMs(script, 0, 1) >= 500, "second send went out " + gapMs(script, 0, 1) + "ms after the first");
+        assertEquals(0, webhook.getRateLimited(), "waited for the reset instead of collecting a 429");
+    }
+
+    @Test
+    void tooManyRequestsIsRetriedAfterRetryAfter() throws Exception {
+        Script script = script("/limited",
+                new Reply(429, Map.of("Retry-After", "0.4", "X-RateLimit-Bucket", "abc",
+                        "X-RateLimit-Remaining", "0", "X-RateLimit-Reset-After", "0.4")));
+        DiscordWebhook webhook = webhook("/limited");
+
+        assertTrue(send(webhook, "hello"));
+
+        assertEquals(2, script.arrivals.size());
+        assertTrue(gapMs(script, 0, 1) >= 400, "retried after " + gapMs(script, 0, 1) + "ms");
+        assertEquals(1, webhook.getRateLimited());
+        assertEquals(1, webhook.getRetries());
+        assertEquals("abc", webhook.getRateLimitBucket());
+    }
+
+    @Test
+    void serverErrorsAreRetriedWithBackoff() throws Exception {
+        Script script = script("/flaky", new Reply(502, Map.of()), new Reply(503, Map.of()));
+        DiscordWebhook webhook = webhook("/flaky");
+
+        assertTrue(send(webhook, "hello"));
+
+        assertEquals(3, script.arrivals.size());
+        // 500ms then 1000ms, plus jitter
+        assertTrue(gapMs(script, 0, 1) >= 500, "first retry after " + gapMs(script, 0, 1) + "ms");
+        assertTrue(gapMs(script, 1, 2) >= 1000, "second retry after " + gapMs(script, 1, 2) + "ms");
+        assertEquals(2, webhook.getRetries());
+        assertEquals(1, webhook.getSent());
+    }
+
+    @Test
+    void waitingForARetryDoesNotBlockOtherSends() throws Exception {
+        Script limited = script("/slow", new Reply(429, Map.of("Retry-After", "2")));
+        DiscordWebhook slow = webhook("/slow");
+        DiscordWebhook fast = webhook("/fast");
+
+        var pending = slow.sendAsync("waits", null, null);
+        long start = System.nanoTime();
+        assertTrue(send(fast, "goes straight through"));
+        long fastMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(fastMs < 1000, "other webhook took " + fastMs + "ms");
+        assertFalse(pending.isDone(), "rate limited send should still be waiting");
+        assertTrue(pending.get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(2, limited.arrivals.size());
+    }
+
+    @Test
+    void unauthorizedKillsTheWebhook() throws Exception {
+        Script script = script("/deleted", new Reply(401, Map.of()));
+        DiscordWebhook webhook = webhook("/deleted");
+
+        assertFalse(send(webhook, "hello"));
+
+        assertTrue(webhook.isDead());
+        assertEquals(1, script.arrivals.size(), "401 must not be retried");
+    }
+
+    @Test
+    void notFoundKillsTheWebhook() throws Exception {
+        Script script = script("/missing", new Reply(404, Map.of()));
+        DiscordWebhook webhook = webhook("/missing");
+
+        assertFalse(send(webhook, "hello"));
+
+        assertTrue(webhook.isDead());
+        assertEquals(1, script.arrivals.size(), "404 must not be retried");
+    }
+
+    @Test
+    void freeBudgetCountsASendOnTheWireOnce() throws Exception {
+        Script script = script("/budget",
+                new Reply(204, Map.of("X-RateLimit-Remaining", "4", "X-RateLimit-Reset-After", "5")));
+        DiscordWebhook webhook = webhook("/budget");
+
+        assertTrue(send(webhook, "first"));
+        assertEquals(4, webhook.getFreeBudget());
+
+        script.hold = new CountDownLatch(1);
+        var pending = webhook.sendAsync("held", null, null);
+        while (script.arrivals.size() < 2) {
+            Thread.sleep(5);
+        }
+        assertEquals(3, webhook.getFreeBudget());
+
+        script.hold.countDown();
+        assertTrue(pending.get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,227 @@
+package com.coop.bot;
+
+import com.coop.bot.objects.DeathRecord;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.EntityTypes;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays fixed death traces through FarmingDetector the way the death worker does (advance to the
+ * death's time, then record it) and checks when farms are detected, which deaths are suppressed and
+ * when summaries are sent.
+ */
+class FarmingDetectorTest {
+    private static final long START = 1_700_000_000L;
+    private static final UUID GRINDER = new UUID(0x1000L, 1L);
+    private static final UUID MIXED = new UUID(0x2000L, 2L);
+    private static final UUID EXPLORER = new UUID(0x3000L, 3L);
+
+    // What the callbacks saw, captured when they ran since sessions keep changing afterwards
+    private record Event(String kind, String killer, int kills, boolean mixed, int types, long time) {}
+
+    private FarmingDetector detector;
+    private final List<Event> events = new ArrayList<>();
+    private long now;
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @BeforeEach
+    void createDetector() {
+        events.clear();
+        now = START;
+        detector = new FarmingDetector(START,
+                session -> events.add(event("detected", session)),
+                session -> events.add(event("ended", session)));
+    }
+
+    private Event event(String kind, FarmingDetector.Session session) {
+        return new Event(kind, session.getKillerName(), session.getKillCount(), session.isMixed(),
+                session.getTypeCount(), now);
+    }
+
+    private static DeathRecord kill(UUID killer, String killerName, EntityType<?> type, String name, long time) {
+        return new DeathRecord.Builder()
+                .entityUUID(new UUID(time, name.hashCode()))
+                .entityName(name)
+                .entityType(type)
+                .killerUUID(killer)
+                .killerName(killerName)
+                .killerType(EntityTypes.PLAYER)
+                .damageSource("player")
+                .deathLocation(0, 64, 0, "the Overworld")
+                .timestamp(time)
+                .build();
+    }
+
+    // Suppression result per death, in trace order
+    private List<Boolean> replay(List<DeathRecord> trace) {
+        List<DeathRecord> sorted = new ArrayList<>(trace);
+        sorted.sort(Comparator.comparingLong(DeathRecord::getTimestamp));
+        List<Boolean> suppressed = new ArrayList<>();
+        for (DeathRecord death : sorted) {
+            advanceTo(death.getTimestamp());
+            suppressed.add(detector.recordKill(death));
+        }
+        return suppressed;
+    }
+
+    private void advanceTo(long time) {
+        now = time;
+        detector.advance(time);
+    }
+
+    private List<Event> events(String kind, String killer) {
+        return events.stream().filter(e -> e.kind().equals(kind) && e.killer().equals(killer)).toList();
+    }
+
+    @Test
+    void singleTypeFarmIsFlaggedOnTheTenthKill() {
+        List<DeathRecord> trace = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            trace.add(kill(GRINDER, "Grinder", EntityTypes.ZOMBIE, "Zombie", START + i * 2L));
+        }
+
+        List<Boolean> suppressed = replay(trace);
+
+        for (int i = 0; i < FarmingDetector.FARMING_THRESHOLD - 1; i++) {
+            assertFalse(suppressed.get(i), "kill " + (i + 1) + " should still be posted");
+        }
+        for (int i = FarmingDetector.FARMING_THRESHOLD - 1; i < trace.size(); i++) {
+            assertTrue(suppressed.get(i), "kill " + (i + 1) + " should be suppressed");
+        }
+
+        List<Event> detected = events("detected", "Grinder");
+        assertEquals(1, detected.size());
+        assertEquals(FarmingDetector.FARMING_THRESHOLD, detected.get(0).kills());
+        assertEquals(START + 18, detected.get(0).time());
+        assertFalse(detected.get(0).mixed());
+        // The zombie session and the all-types one
+        assertEquals(2, detector.getActiveSessions());
+    }
+
+    @Test
+    void summaryIsSentAfterInactivity() {
+        List<DeathRecord> trace = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            trace.add(kill(GRINDER, "Grinder", EntityTypes.ZOMBIE, "Zombie", START + i * 2L));
+        }
+        replay(trace);
+        long lastKill = START + 28;
+
+        advanceTo(lastKill + FarmingDetector.INACTIVITY_SECONDS);
+        assertTrue(events("ended", "Grinder").isEmpty(), "still within the inactivity window");
+
+        advanceTo(lastKill + FarmingDetector.INACTIVITY_SECONDS + 1);
+        List<Event> ended = events("ended", "Grinder");
+        assertEquals(1, ended.size());
+        assertEquals(15, ended.get(0).kills());
+        assertEquals(lastKill + FarmingDetector.INACTIVITY_SECONDS + 1, ended.get(0).time());
+        assertEquals(0, detector.getActiveSessions());
+    }
+
+    @Test
+    void mixedFarmIsFlaggedAtTwentyKillsOverSeveralTypes() {
+        EntityType<?>[] types = {EntityTypes.ZOMBIE, EntityTypes.SKELETON, EntityTypes.CREEPER};
+        String[] names = {"Zombie", "Skeleton", "Creeper"};
+        List<DeathRecord> trace = new ArrayList<>();
+        // 7 zombies, 7 skeletons and 6 creepers, no single type reaches the single type threshold
+        for (int i = 0; i < 20; i++) {
+            trace.add(kill(MIXED, "Mixed", types[i % 3], names[i % 3], START + i * 3L));
+        }
+
+        List<Boolean> suppressed = replay(trace);
+
+        for (int i = 0; i < FarmingDetector.MIXED_FARMING_THRESHOLD - 1; i++) {
+            assertFalse(suppressed.get(i), "kill " + (i + 1) + " should still be posted");
+        }
+        assertTrue(suppressed.get(FarmingDetector.MIXED_FARMING_THRESHOLD - 1));
+
+        List<Event> detected = events("detected", "Mixed");
+        assertEquals(1, detected.size());
+        assertTrue(detected.get(0).mixed());
+        assertEquals(FarmingDetector.MIXED_FARMING_THRESHOLD, detected.get(0).kills());
+        assertEquals(3, detected.get(0).types());
+    }
+
+    @Test
+    void explorerIsNeverSuppressed() {
+        EntityType<?>[] types = {EntityTypes.ZOMBIE, EntityTypes.SKELETON, EntityTypes.SPIDER};
+        String[] names = {"Zombie", "Skeleton", "Spider"};
+        List<DeathRecord> trace = new ArrayList<>();
+        // One kill every 90 seconds for an hour, every kill starts a fresh session
+        for (int i = 0; i < 40; i++) {
+            trace.add(kill(EXPLORER, "Explorer", types[i % 3], names[i % 3], START + i * 90L));
+        }
+
+        List<Boolean> suppressed = replay(trace);
+
+        assertFalse(suppressed.contains(true));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void interleavedTraceOnlyFlagsTheFarmers() {
+        List<DeathRecord> trace = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            trace.add(kill(GRINDER, "Grinder", EntityTypes.ZOMBIE, "Zombie", START + i * 2L));
+        }
+        EntityType<?>[] types = {EntityTypes.BLAZE, EntityTypes.ENDERMAN, EntityTypes.WITCH};
+        String[] names = {"Blaze", "Enderman", "Witch"};
+        // 9, 8 and 8 kills, a mixed farm that never becomes a single type one
+        for (int i = 0; i < 25; i++) {
+            trace.add(kill(MIXED, "Mixed", types[i % 3], names[i % 3], START + 1 + i * 2L));
+        }
+        for (int i = 0; i < 3; i++) {
+            trace.add(kill(EXPLORER, "Explorer", EntityTypes.CREEPER, "Creeper", START + i * 20L));
+        }
+
+        List<Boolean> suppressed = replay(trace);
+        advanceTo(START + 60 + FarmingDetector.INACTIVITY_SECONDS + 1);
+
+        // 21 grinder kills (10th to 30th) and 6 mixed kills (20th to 25th)
+        assertEquals(21 + 6, suppressed.stream().filter(s -> s).count());
+        assertEquals(1, events("detected", "Grinder").size());
+        assertEquals(1, events("detected", "Mixed").size());
+        assertTrue(events("detected", "Explorer").isEmpty());
+        assertEquals(30, events("ended", "Grinder").get(0).kills());
+        assertEquals(25, events("ended", "Mixed").get(0).kills());
+        assertEquals(0, detector.getActiveSessions());
+    }
+
+    @Test
+    void newSessionAfterAGapNeedsTheFullThresholdAgain() {
+        List<DeathRecord> trace = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            trace.add(kill(GRINDER, "Grinder", EntityTypes.ZOMBIE, "Zombie", START + i));
+        }
+        long resume = START + 11 + FarmingDetector.INACTIVITY_SECONDS + 30;
+        for (int i = 0; i < 9; i++) {
+            trace.add(kill(GRINDER, "Grinder", EntityTypes.ZOMBIE, "Zombie", resume + i));
+        }
+
+        List<Boolean> suppressed = replay(trace);
+
+        assertEquals(1, events("ended", "Grinder").size());
+        assertEquals(1, events("detected", "Grinder").size());
+        for (int i = 12; i < 21; i++) {
+            assertFalse(suppressed.get(i), "kill " + (i + 1) + " is in a new session below the threshold");
+        }
+    }
+}